@@ -0,0 +1,22 @@
+#!/bin/bash
+
+# 回调执行模式基准测试：分别以 async 和 virtual 模式运行 benchmark/CallbackBenchmark.java
+# 用法: ./benchmark.sh [sessions] [callbacksPerSession] [delayMs] [maxConcurrency]
+# virtual 模式需要 JDK 21+，否则回退到平台线程池
+
+SESSIONS=${1:-2000}
+CALLBACKS=${2:-5}
+DELAY_MS=${3:-50}
+MAX_CONCURRENCY=${4:-64}
+OUT_DIR="target/benchmark"
+
+echo "🔨 Compiling service and resolving classpath..."
+mvn -q -B compile dependency:build-classpath -Dmdep.outputFile=target/benchmark-classpath.txt || exit 1
+CLASSPATH="target/classes:$(cat target/benchmark-classpath.txt)"
+
+mkdir -p ${OUT_DIR}
+javac -encoding UTF-8 -cp "${CLASSPATH}" -d ${OUT_DIR} benchmark/CallbackBenchmark.java || exit 1
+
+for MODE in async virtual; do
+    java -cp "${OUT_DIR}:${CLASSPATH}" CallbackBenchmark ${MODE} ${SESSIONS} ${CALLBACKS} ${DELAY_MS} ${MAX_CONCURRENCY}
+done
@@ -0,0 +1,130 @@
+import ch.qos.logback.classic.Level;
+import com.basketball.config.ExecutionConfig;
+import com.basketball.config.TableStoreConfig;
+import com.basketball.config.TunnelWorkerProperties;
+import com.basketball.service.NotificationService;
+import com.basketball.service.SessionDispatcher;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 回调投递基准测试
+ * 用真实的NotificationService向本地模拟的慢速Node.js回调接口发送gameState回调，
+ * 对比 async 和 virtual 两种执行模式的吞吐、延迟、平台线程数和会话内乱序数。
+ *
+ * 参数：mode sessions callbacksPerSession delayMs maxConcurrency
+ */
+public class CallbackBenchmark {
+
+    private static final Pattern SESSION_PATTERN = Pattern.compile("\"sessionId\":\"([^\"]+)\"");
+    private static final Pattern DATA_PATTERN = Pattern.compile("\"data\":\"(\\d+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : ExecutionConfig.MODE_ASYNC;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int callbacksPerSession = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int delayMs = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int maxConcurrency = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+            .setLevel(Level.WARN);
+
+        // 模拟Node.js：每个回调等待delayMs后返回，并检查同一会话内的顺序
+        Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+        AtomicLong outOfOrder = new AtomicLong();
+        ThreadPoolExecutor serverPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(512);
+        serverPool.prestartAllCoreThreads();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(serverPool);
+        server.createContext("/api/tunnel/callback", exchange -> {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Matcher session = SESSION_PATTERN.matcher(body);
+            Matcher data = DATA_PATTERN.matcher(body);
+            if (session.find() && data.find()) {
+                long seq = Long.parseLong(data.group(1));
+                Long previous = lastSeen.put(session.group(1), seq);
+                if (previous != null && previous > seq) {
+                    outOfOrder.incrementAndGet();
+                }
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        TableStoreConfig tableStoreConfig = new TableStoreConfig();
+        set(tableStoreConfig, "nodejsCallbackUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ExecutionConfig executionConfig = new ExecutionConfig();
+        set(executionConfig, "executionMode", mode);
+        set(executionConfig, "maxConcurrency", maxConcurrency);
+        TunnelWorkerProperties workerProperties = new TunnelWorkerProperties();
+        set(workerProperties, "instanceId", "benchmark");
+
+        SessionDispatcher dispatcher = new SessionDispatcher(executionConfig);
+        NotificationService notificationService =
+            new NotificationService(tableStoreConfig, executionConfig, workerProperties, dispatcher);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baselineThreads = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        long total = (long) sessions * callbacksPerSession;
+        long start = System.nanoTime();
+        for (int i = 0; i < callbacksPerSession; i++) {
+            for (int s = 0; s < sessions; s++) {
+                notificationService.notifyGameStateChange("S" + s, String.valueOf(i), null);
+            }
+        }
+
+        Map<String, Object> stats = notificationService.getStats();
+        while ((long) stats.get("sent") + (long) stats.get("failed") < total) {
+            Thread.sleep(20);
+            stats = notificationService.getStats();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("mode=%s java=%s virtualThreads=%s sessions=%d callbacks=%d delayMs=%d maxConcurrency=%d%n",
+            mode, System.getProperty("java.version"), stats.get("virtualThreads"),
+            sessions, total, delayMs, maxConcurrency);
+        System.out.printf("  elapsedMs=%d throughput=%.0f/s avgLatencyMs=%s failed=%s outOfOrder=%d peakExtraThreads=%d%n",
+            elapsedMs, total * 1000.0 / elapsedMs, stats.get("avgLatencyMs"), stats.get("failed"),
+            outOfOrder.get(), threads.getPeakThreadCount() - baselineThreads);
+
+        dispatcher.shutdown();
+        server.stop(0);
+        System.exit(0);
+    }
+
+    private static void set(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
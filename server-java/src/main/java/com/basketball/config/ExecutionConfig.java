@@ -0,0 +1,41 @@
+package com.basketball.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 执行模式配置类
+ * 管理回调投递的执行方式和并发限制
+ */
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * 异步模式：OkHttp异步回调线程（默认）
+     */
+    public static final String MODE_ASYNC = "async";
+
+    /**
+     * 虚拟线程模式：每个会话串行、同步HTTP调用运行在虚拟线程上（需要JDK 21+）
+     */
+    public static final String MODE_VIRTUAL = "virtual";
+
+    @Value("${callback.execution-mode:async}")
+    private String executionMode;
+
+    @Value("${callback.max-concurrency:64}")
+    private int maxConcurrency;
+
+    // Getter methods
+    public String getExecutionMode() {
+        return executionMode;
+    }
+
+    public boolean isVirtualMode() {
+        return MODE_VIRTUAL.equalsIgnoreCase(executionMode);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
@@ -0,0 +1,49 @@
+package com.basketball.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 在线状态配置类
+ * 管理心跳超时、时间轮精度和持久化间隔
+ * 在线状态只保存在单个实例的内存中，多实例部署时只能有一个实例启用
+ */
+@Configuration
+public class PresenceConfig {
+
+    @Value("${presence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${presence.timeout-sec:60}")
+    private int timeoutSec;
+
+    @Value("${presence.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${presence.persist-interval-sec:30}")
+    private int persistIntervalSec;
+
+    @Value("${tunnel.game-sessions-table:GameSessions}")
+    private String gameSessionsTable;
+
+    // Getter methods
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getTimeoutSec() {
+        return timeoutSec;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public int getPersistIntervalSec() {
+        return persistIntervalSec;
+    }
+
+    public String getGameSessionsTable() {
+        return gameSessionsTable;
+    }
+}
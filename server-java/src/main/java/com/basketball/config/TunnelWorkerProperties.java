@@ -0,0 +1,99 @@
+package com.basketball.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tunnel Worker配置类
+ * 管理心跳、读取/处理线程池、Channel并发度以及多实例部署参数
+ */
+@Configuration
+public class TunnelWorkerProperties {
+
+    @Value("${tunnel.instance-id:}")
+    private String instanceId;
+
+    @Value("${tunnel.worker.heartbeat-interval-sec:30}")
+    private int heartbeatIntervalSec;
+
+    @Value("${tunnel.worker.read-threads:32}")
+    private int readThreads;
+
+    @Value("${tunnel.worker.read-max-threads:1000}")
+    private int readMaxThreads;
+
+    @Value("${tunnel.worker.process-threads:32}")
+    private int processThreads;
+
+    @Value("${tunnel.worker.process-max-threads:1000}")
+    private int processMaxThreads;
+
+    @Value("${tunnel.worker.max-channel-parallel:-1}")
+    private int maxChannelParallel;
+
+    @Value("${tunnel.game-sessions-table:GameSessions}")
+    private String gameSessionsTable;
+
+    @Value("${tunnel.game-sessions-name:}")
+    private String gameSessionsTunnelName;
+
+    @Value("${tunnel.game-events-table:GameEvents}")
+    private String gameEventsTable;
+
+    @Value("${tunnel.game-events-name:}")
+    private String gameEventsTunnelName;
+
+    /**
+     * 实例标识，同时作为Tunnel的clientTag
+     * 未配置时使用 JVM名称（pid@hostname）
+     */
+    public String getInstanceId() {
+        if (instanceId == null || instanceId.isEmpty()) {
+            instanceId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return instanceId;
+    }
+
+    // Getter methods
+    public int getHeartbeatIntervalSec() {
+        return heartbeatIntervalSec;
+    }
+
+    public int getReadThreads() {
+        return readThreads;
+    }
+
+    public int getReadMaxThreads() {
+        return readMaxThreads;
+    }
+
+    public int getProcessThreads() {
+        return processThreads;
+    }
+
+    public int getProcessMaxThreads() {
+        return processMaxThreads;
+    }
+
+    public int getMaxChannelParallel() {
+        return maxChannelParallel;
+    }
+
+    public String getGameSessionsTable() {
+        return gameSessionsTable;
+    }
+
+    public String getGameSessionsTunnelName() {
+        return gameSessionsTunnelName;
+    }
+
+    public String getGameEventsTable() {
+        return gameEventsTable;
+    }
+
+    public String getGameEventsTunnelName() {
+        return gameEventsTunnelName;
+    }
+}
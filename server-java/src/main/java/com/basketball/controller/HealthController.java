@@ -1,7 +1,9 @@
 package com.basketball.controller;
 
+import com.basketball.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,6 +21,9 @@ public class HealthController {
 
     private static final Logger log = LoggerFactory.getLogger(HealthController.class);
 
+    @Autowired
+    private NotificationService notificationService;
+
     /**
      * 健康检查接口
      */
@@ -46,5 +51,12 @@ public class HealthController {
         
         return response;
     }
-}
 
+    /**
+     * 回调统计接口
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return notificationService.getStats();
+    }
+}
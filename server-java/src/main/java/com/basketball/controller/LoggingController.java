@@ -0,0 +1,80 @@
+package com.basketball.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 日志级别控制器
+ * 运行时查询和切换日志级别，无需重启服务
+ */
+@RestController
+@RequestMapping("/api/logging")
+public class LoggingController {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingController.class);
+
+    private static final String DEFAULT_LOGGER = "com.basketball";
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    /**
+     * 查询日志级别
+     */
+    @GetMapping("/level")
+    public Map<String, Object> getLevel(
+            @RequestParam(value = "logger", defaultValue = DEFAULT_LOGGER) String loggerName) {
+        return describe(loggerName);
+    }
+
+    /**
+     * 修改日志级别，level为空时恢复为配置文件中的级别
+     */
+    @PostMapping("/level")
+    public ResponseEntity<Map<String, Object>> setLevel(@RequestBody Map<String, String> body) {
+        String loggerName = body.getOrDefault("logger", DEFAULT_LOGGER);
+        String level = body.get("level");
+
+        LogLevel logLevel = null;
+        if (level != null && !level.isEmpty()) {
+            try {
+                logLevel = LogLevel.valueOf(level.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("error", "Unknown log level: " + level);
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+
+        loggingSystem.setLogLevel(loggerName, logLevel);
+        log.info("🔧 Log level changed: logger={} level={}", loggerName, logLevel);
+
+        return ResponseEntity.ok(describe(loggerName));
+    }
+
+    private Map<String, Object> describe(String loggerName) {
+        LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(loggerName);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("logger", loggerName);
+        if (configuration != null) {
+            response.put("configuredLevel", configuration.getConfiguredLevel());
+            response.put("effectiveLevel", configuration.getEffectiveLevel());
+        }
+        return response;
+    }
+}
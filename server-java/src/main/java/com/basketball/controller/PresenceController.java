@@ -0,0 +1,97 @@
+package com.basketball.controller;
+
+import com.basketball.service.PresenceTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 在线状态控制器
+ * 接收用户心跳并提供会话在线用户查询
+ * 本实例未启用在线状态（presence.enabled=false）时返回503，Node.js随即回退为直接写TableStore
+ */
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceController {
+
+    @Autowired
+    private PresenceTracker presenceTracker;
+
+    /**
+     * 用户心跳接口
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Map<String, Object>> heartbeat(@RequestBody Map<String, String> body) {
+        String sessionId = body.get("sessionId");
+        String userId = body.get("userId");
+
+        if (sessionId == null || userId == null) {
+            return missingFields();
+        }
+        if (!presenceTracker.isEnabled()) {
+            return disabled();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("joined", presenceTracker.heartbeat(sessionId, userId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 用户离开接口
+     */
+    @PostMapping("/leave")
+    public ResponseEntity<Map<String, Object>> leave(@RequestBody Map<String, String> body) {
+        String sessionId = body.get("sessionId");
+        String userId = body.get("userId");
+
+        if (sessionId == null || userId == null) {
+            return missingFields();
+        }
+        if (!presenceTracker.isEnabled()) {
+            return disabled();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("left", presenceTracker.leave(sessionId, userId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 会话在线用户查询接口
+     */
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> activeUsers(@PathVariable String sessionId) {
+        if (!presenceTracker.isEnabled()) {
+            return disabled();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionId", sessionId);
+        response.put("activeUsers", presenceTracker.getActiveUsers(sessionId));
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> disabled() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Presence tracking is disabled on this instance");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> missingFields() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Missing required fields: sessionId, userId");
+        return ResponseEntity.badRequest().body(response);
+    }
+}
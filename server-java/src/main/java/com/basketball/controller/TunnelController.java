@@ -0,0 +1,29 @@
+package com.basketball.controller;
+
+import com.basketball.service.TunnelService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Tunnel状态控制器
+ * 提供Channel分配情况查询接口
+ */
+@RestController
+@RequestMapping("/api/tunnel")
+public class TunnelController {
+
+    @Autowired
+    private TunnelService tunnelService;
+
+    /**
+     * Channel分配情况
+     */
+    @GetMapping("/channels")
+    public Map<String, Object> channels() {
+        return tunnelService.describeChannels();
+    }
+}
@@ -7,7 +7,7 @@ package com.basketball.model;
 public class CallbackRequest {
     
     /**
-     * 回调类型：gameState、gameEvent
+     * 回调类型：gameState、gameEvent、presence
      */
     private String type;
     
@@ -26,15 +26,32 @@ public class CallbackRequest {
      */
     private Long timestamp;
 
+    /**
+     * 记录序列号，同一会话内单调递增，用于接收方丢弃重放和乱序的记录
+     */
+    private String sequence;
+
+    /**
+     * 发送回调的实例标识
+     */
+    private String instanceId;
+
     // 构造函数
     public CallbackRequest() {
     }
 
     public CallbackRequest(String type, String sessionId, String data, Long timestamp) {
+        this(type, sessionId, data, timestamp, null, null);
+    }
+
+    public CallbackRequest(String type, String sessionId, String data, Long timestamp,
+                           String sequence, String instanceId) {
         this.type = type;
         this.sessionId = sessionId;
         this.data = data;
         this.timestamp = timestamp;
+        this.sequence = sequence;
+        this.instanceId = instanceId;
     }
 
     // Getter 和 Setter
@@ -70,6 +87,22 @@ public class CallbackRequest {
         this.timestamp = timestamp;
     }
 
+    public String getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(String sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
     // Builder 模式
     public static Builder builder() {
         return new Builder();
@@ -80,6 +113,8 @@ public class CallbackRequest {
         private String sessionId;
         private String data;
         private Long timestamp;
+        private String sequence;
+        private String instanceId;
 
         public Builder type(String type) {
             this.type = type;
@@ -101,8 +136,18 @@ public class CallbackRequest {
             return this;
         }
 
+        public Builder sequence(String sequence) {
+            this.sequence = sequence;
+            return this;
+        }
+
+        public Builder instanceId(String instanceId) {
+            this.instanceId = instanceId;
+            return this;
+        }
+
         public CallbackRequest build() {
-            return new CallbackRequest(type, sessionId, data, timestamp);
+            return new CallbackRequest(type, sessionId, data, timestamp, sequence, instanceId);
         }
     }
 }
@@ -0,0 +1,47 @@
+package com.basketball.model;
+
+import java.util.Arrays;
+
+/**
+ * 计分板帧
+ * 预先编码好的WebSocket消息（UTF-8 JSON），创建后不可变，
+ * 在回调和转发链路上共享同一份字节，不再重复序列化。
+ */
+public final class ScoreboardFrame {
+
+    private final String sessionId;
+    private final String sequence;
+    private final byte[] bytes;
+
+    public ScoreboardFrame(String sessionId, String sequence, byte[] bytes) {
+        this.sessionId = sessionId;
+        this.sequence = sequence;
+        this.bytes = bytes;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getSequence() {
+        return sequence;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * 比较帧内容是否相同（忽略序列号）
+     */
+    public boolean sameContentAs(ScoreboardFrame other) {
+        return other != null && Arrays.equals(bytes, other.bytes);
+    }
+
+    /**
+     * 底层字节，直接用作请求体，调用方不得修改
+     */
+    public byte[] sharedBytes() {
+        return bytes;
+    }
+}
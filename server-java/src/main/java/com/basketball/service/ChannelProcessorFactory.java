@@ -0,0 +1,87 @@
+package com.basketball.service;
+
+import com.alicloud.openservices.tablestore.tunnel.worker.DefaultChannelProcessor;
+import com.alicloud.openservices.tablestore.tunnel.worker.IChannelProcessor;
+import com.alicloud.openservices.tablestore.tunnel.worker.IChannelProcessorFactory;
+import com.alicloud.openservices.tablestore.tunnel.worker.ICheckpointer;
+import com.alicloud.openservices.tablestore.tunnel.worker.ProcessRecordsInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Channel处理器工厂
+ * 每个Channel使用独立的处理器实例，Channel释放时只清理该Channel的会话状态；
+ * 同时记录本实例在Tunnel中的clientId和持有的Channel，用于精确判断Channel归属。
+ */
+public class ChannelProcessorFactory implements IChannelProcessorFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelProcessorFactory.class);
+
+    private final String name;
+    private final ObjectProvider<? extends IChannelProcessor> processorProvider;
+    private final long checkpointIntervalInMillis;
+
+    private final Set<String> ownedChannels = ConcurrentHashMap.newKeySet();
+    private volatile String clientId;
+
+    public ChannelProcessorFactory(String name,
+                                   ObjectProvider<? extends IChannelProcessor> processorProvider,
+                                   long checkpointIntervalInMillis) {
+        this.name = name;
+        this.processorProvider = processorProvider;
+        this.checkpointIntervalInMillis = checkpointIntervalInMillis;
+    }
+
+    @Override
+    public IChannelProcessor createProcessor(String tunnelId, String clientId, String channelId,
+                                             ICheckpointer checkpointer) {
+        this.clientId = clientId;
+        ownedChannels.add(channelId);
+        log.info("📡 {} channel assigned channelId={} clientId={}", name, channelId, clientId);
+
+        IChannelProcessor processor = new ChannelScopedProcessor(channelId, processorProvider.getObject());
+        return new DefaultChannelProcessor(processor, checkpointer, checkpointIntervalInMillis);
+    }
+
+    /**
+     * 本实例在Tunnel中的clientId；尚未分配到Channel时为null
+     */
+    public String getClientId() {
+        return clientId;
+    }
+
+    public Set<String> getOwnedChannels() {
+        return Collections.unmodifiableSet(ownedChannels);
+    }
+
+    /**
+     * 处理器关闭时移除Channel归属
+     */
+    private class ChannelScopedProcessor implements IChannelProcessor {
+
+        private final String channelId;
+        private final IChannelProcessor delegate;
+
+        ChannelScopedProcessor(String channelId, IChannelProcessor delegate) {
+            this.channelId = channelId;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void process(ProcessRecordsInput input) {
+            delegate.process(input);
+        }
+
+        @Override
+        public void shutdown() {
+            ownedChannels.remove(channelId);
+            log.info("📴 {} channel released channelId={}", name, channelId);
+            delegate.shutdown();
+        }
+    }
+}
@@ -3,10 +3,14 @@ package com.basketball.service;
 import com.alicloud.openservices.tablestore.model.StreamRecord;
 import com.alicloud.openservices.tablestore.tunnel.worker.IChannelProcessor;
 import com.alicloud.openservices.tablestore.tunnel.worker.ProcessRecordsInput;
+import com.basketball.util.LogSampler;
 import com.basketball.util.RecordParser;
+import com.basketball.util.SessionSequenceTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -15,20 +19,33 @@ import java.util.Map;
 /**
  * GameEvents表的通道处理器
  * 处理游戏事件变更
+ * 每个Channel一个实例（由ChannelProcessorFactory创建），会话状态只属于该Channel
  */
 @Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class GameEventsProcessor implements IChannelProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(GameEventsProcessor.class);
 
+    // 逐条记录的日志每秒最多输出10条，其余只计数
+    private static final LogSampler logSampler = new LogSampler(10, 1000);
+
+    /**
+     * 最多跟踪的会话数
+     */
+    private static final int MAX_TRACKED_SESSIONS = 10000;
+
     @Autowired
     private NotificationService notificationService;
 
+    private final SessionSequenceTracker sequenceTracker = 
+        new SessionSequenceTracker(MAX_TRACKED_SESSIONS);
+
     @Override
     public void process(ProcessRecordsInput input) {
         List<StreamRecord> records = input.getRecords();
         
-        log.debug("📦 Processing {} GameEvents records", records.size());
+        log.debug("📦 Processing GameEvents batch records={}", records.size());
 
         for (StreamRecord record : records) {
             try {
@@ -45,7 +62,10 @@ public class GameEventsProcessor implements IChannelProcessor {
                 String eventId = (String) primaryKey.get("eventId");
                 
                 if (sessionId == null || eventId == null) {
-                    log.warn("⚠️ Skipping record without sessionId or eventId");
+                    long suppressed = logSampler.tryAcquire("missing-key");
+                    if (suppressed >= 0) {
+                        log.warn("⚠️ Skipping record without sessionId or eventId suppressed={}", suppressed);
+                    }
                     continue;
                 }
 
@@ -57,19 +77,41 @@ public class GameEventsProcessor implements IChannelProcessor {
                 // 获取eventData字段
                 String eventDataJson = (String) columns.get("eventData");
                 if (eventDataJson == null) {
-                    log.warn("⚠️ No eventData found for event {} in session {}", 
-                        eventId, sessionId);
+                    long suppressed = logSampler.tryAcquire("missing-data");
+                    if (suppressed >= 0) {
+                        log.warn("⚠️ No eventData found sessionId={} eventId={} suppressed={}", 
+                            sessionId, eventId, suppressed);
+                    }
+                    continue;
+                }
+
+                // 跳过重放的记录（处理失败重试或Channel迁移后从checkpoint重新消费）
+                String sequence = RecordParser.formatSequence(record);
+                if (!sequenceTracker.advance(sessionId, sequence)) {
+                    long suppressed = logSampler.tryAcquire("replayed");
+                    if (suppressed >= 0) {
+                        log.debug("⏭️ Skipping replayed record sessionId={} sequence={} suppressed={}", 
+                            sessionId, sequence, suppressed);
+                    }
                     continue;
                 }
 
                 // 发送通知
-                log.debug("📤 Sending gameEvent change notification for session: {}", 
-                    sessionId);
-                notificationService.notifyGameEventChange(sessionId, eventDataJson);
+                if (log.isDebugEnabled()) {
+                    long suppressed = logSampler.tryAcquire("notify");
+                    if (suppressed >= 0) {
+                        log.debug("📤 Sending gameEvent notification sessionId={} eventId={} sequence={} suppressed={}", 
+                            sessionId, eventId, sequence, suppressed);
+                    }
+                }
+                notificationService.notifyGameEventChange(sessionId, eventDataJson, sequence);
 
             } catch (Exception e) {
-                log.error("❌ Error processing GameEvents record: {}", 
-                    e.getMessage(), e);
+                long suppressed = logSampler.tryAcquire("error");
+                if (suppressed >= 0) {
+                    log.error("❌ Error processing GameEvents record error={} suppressed={}", 
+                        e.getMessage(), suppressed, e);
+                }
                 // 继续处理下一条记录，不中断整个批次
             }
         }
@@ -78,5 +120,7 @@ public class GameEventsProcessor implements IChannelProcessor {
     @Override
     public void shutdown() {
         log.info("🛑 GameEventsProcessor shutting down");
+        // 本Channel被释放或迁移到其他实例，会话状态由新的处理方重建；其他Channel不受影响
+        sequenceTracker.clear();
     }
 }
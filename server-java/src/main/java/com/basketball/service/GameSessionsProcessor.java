@@ -3,10 +3,15 @@ package com.basketball.service;
 import com.alicloud.openservices.tablestore.model.StreamRecord;
 import com.alicloud.openservices.tablestore.tunnel.worker.IChannelProcessor;
 import com.alicloud.openservices.tablestore.tunnel.worker.ProcessRecordsInput;
+import com.basketball.model.ScoreboardFrame;
+import com.basketball.util.LogSampler;
 import com.basketball.util.RecordParser;
+import com.basketball.util.SessionSequenceTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -15,25 +20,41 @@ import java.util.Map;
 /**
  * GameSessions表的通道处理器
  * 处理游戏会话状态变更
+ * 每个Channel一个实例（由ChannelProcessorFactory创建），会话状态只属于该Channel
  */
 @Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class GameSessionsProcessor implements IChannelProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(GameSessionsProcessor.class);
 
+    // 逐条记录的日志每秒最多输出10条，其余只计数
+    private static final LogSampler logSampler = new LogSampler(10, 1000);
+
+    /**
+     * 最多跟踪的会话数
+     */
+    private static final int MAX_TRACKED_SESSIONS = 10000;
+
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ScoreboardProjector scoreboardProjector;
+
+    private final SessionSequenceTracker sequenceTracker = 
+        new SessionSequenceTracker(MAX_TRACKED_SESSIONS);
+
     @Override
     public void process(ProcessRecordsInput input) {
         List<StreamRecord> records = input.getRecords();
         
-        log.debug("📦 Processing {} GameSessions records", records.size());
+        log.debug("📦 Processing GameSessions batch records={}", records.size());
 
         for (StreamRecord record : records) {
             try {
-                // 只处理PUT类型的记录
-                if (record.getRecordType() != StreamRecord.RecordType.PUT) {
+                // Node.js通过updateRow保存gameState，产生UPDATE记录；PUT和UPDATE都处理，只跳过删除
+                if (record.getRecordType() == StreamRecord.RecordType.DELETE) {
                     continue;
                 }
 
@@ -44,7 +65,10 @@ public class GameSessionsProcessor implements IChannelProcessor {
                 String sessionId = (String) primaryKey.get("sessionId");
                 
                 if (sessionId == null) {
-                    log.warn("⚠️ Skipping record without sessionId");
+                    long suppressed = logSampler.tryAcquire("missing-key");
+                    if (suppressed >= 0) {
+                        log.warn("⚠️ Skipping record without sessionId suppressed={}", suppressed);
+                    }
                     continue;
                 }
 
@@ -56,18 +80,53 @@ public class GameSessionsProcessor implements IChannelProcessor {
                 // 获取gameState字段
                 String gameStateJson = (String) columns.get("gameState");
                 if (gameStateJson == null) {
-                    log.warn("⚠️ No gameState found for session {}", sessionId);
+                    // 只更新了其他列（如activeUsers）的UPDATE记录与gameState无关
+                    if (record.getRecordType() == StreamRecord.RecordType.UPDATE) {
+                        continue;
+                    }
+                    long suppressed = logSampler.tryAcquire("missing-data");
+                    if (suppressed >= 0) {
+                        log.warn("⚠️ No gameState found sessionId={} suppressed={}", sessionId, suppressed);
+                    }
+                    continue;
+                }
+
+                // 跳过重放的记录（处理失败重试或Channel迁移后从checkpoint重新消费）
+                String sequence = RecordParser.formatSequence(record);
+                if (!sequenceTracker.advance(sessionId, sequence)) {
+                    long suppressed = logSampler.tryAcquire("replayed");
+                    if (suppressed >= 0) {
+                        log.debug("⏭️ Skipping replayed record sessionId={} sequence={} suppressed={}", 
+                            sessionId, sequence, suppressed);
+                    }
                     continue;
                 }
 
-                // 发送通知
-                log.debug("📤 Sending gameState change notification for session: {}", 
-                    sessionId);
-                notificationService.notifyGameStateChange(sessionId, gameStateJson);
+                // 发送通知；UPDATE来自Node.js的PUT /sessions/:sessionId，Node.js已直接广播完整gameState，
+                // 这里只发布计分板，避免每次保存都向订阅者推送两次完整状态
+                if (record.getRecordType() == StreamRecord.RecordType.PUT) {
+                    if (log.isDebugEnabled()) {
+                        long suppressed = logSampler.tryAcquire("notify");
+                        if (suppressed >= 0) {
+                            log.debug("📤 Sending gameState notification sessionId={} sequence={} suppressed={}", 
+                                sessionId, sequence, suppressed);
+                        }
+                    }
+                    notificationService.notifyGameStateChange(sessionId, gameStateJson, sequence);
+                }
+
+                // 计分板有变化时发布到ticker通道
+                ScoreboardFrame frame = scoreboardProjector.project(sessionId, gameStateJson, sequence);
+                if (frame != null) {
+                    notificationService.publishScoreboard(frame);
+                }
 
             } catch (Exception e) {
-                log.error("❌ Error processing GameSessions record: {}", 
-                    e.getMessage(), e);
+                long suppressed = logSampler.tryAcquire("error");
+                if (suppressed >= 0) {
+                    log.error("❌ Error processing GameSessions record error={} suppressed={}", 
+                        e.getMessage(), suppressed, e);
+                }
                 // 继续处理下一条记录，不中断整个批次
             }
         }
@@ -76,6 +135,9 @@ public class GameSessionsProcessor implements IChannelProcessor {
     @Override
     public void shutdown() {
         log.info("🛑 GameSessionsProcessor shutting down");
+        // 本Channel被释放或迁移到其他实例，会话状态由新的处理方重建；其他Channel不受影响
+        sequenceTracker.clear();
+        scoreboardProjector.clear();
     }
 }
 
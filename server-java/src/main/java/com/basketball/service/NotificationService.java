@@ -1,7 +1,11 @@
 package com.basketball.service;
 
+import com.basketball.config.ExecutionConfig;
 import com.basketball.config.TableStoreConfig;
+import com.basketball.config.TunnelWorkerProperties;
 import com.basketball.model.CallbackRequest;
+import com.basketball.model.ScoreboardFrame;
+import com.basketball.util.LogSampler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.*;
 import org.slf4j.Logger;
@@ -10,7 +14,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 通知服务
@@ -21,38 +28,66 @@ public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
+    // 每种回调日志每秒最多输出10条，其余只计数
+    private static final LogSampler logSampler = new LogSampler(10, 1000);
+
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final String callbackUrl;
+    private final String instanceId;
+    private final SessionDispatcher dispatcher;
+    private final boolean virtualMode;
+
+    // 回调统计，用于对比不同执行模式
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
     
     private static final MediaType JSON_MEDIA_TYPE = 
         MediaType.get("application/json; charset=utf-8");
 
+    // 计分板帧以原始字节发送，避免Node.js端按JSON解析
+    private static final MediaType FRAME_MEDIA_TYPE = 
+        MediaType.get("application/octet-stream");
+
     @Autowired
-    public NotificationService(TableStoreConfig config) {
+    public NotificationService(TableStoreConfig config, ExecutionConfig executionConfig,
+                               TunnelWorkerProperties workerProperties, SessionDispatcher dispatcher) {
         this.callbackUrl = config.getNodejsCallbackUrl();
+        this.instanceId = workerProperties.getInstanceId();
         this.objectMapper = new ObjectMapper();
+        this.dispatcher = dispatcher;
+        this.virtualMode = executionConfig.isVirtualMode();
+
+        // 异步模式下限制OkHttp的并发请求数，与虚拟线程模式的并发上限保持一致
+        Dispatcher httpDispatcher = new Dispatcher();
+        httpDispatcher.setMaxRequests(Math.max(1, executionConfig.getMaxConcurrency()));
+        httpDispatcher.setMaxRequestsPerHost(Math.max(1, executionConfig.getMaxConcurrency()));
         
         // 配置HTTP客户端
         this.httpClient = new OkHttpClient.Builder()
+            .dispatcher(httpDispatcher)
             .connectTimeout(5, TimeUnit.SECONDS)
             .writeTimeout(5, TimeUnit.SECONDS)
             .readTimeout(5, TimeUnit.SECONDS)
             .retryOnConnectionFailure(true)
             .build();
         
-        log.info("✅ NotificationService initialized, callback URL: {}", callbackUrl);
+        log.info("✅ NotificationService initialized, callback URL: {}, execution mode: {}",
+            callbackUrl, executionConfig.getExecutionMode());
     }
 
     /**
      * 发送游戏状态变更通知
      */
-    public void notifyGameStateChange(String sessionId, String gameStateJson) {
+    public void notifyGameStateChange(String sessionId, String gameStateJson, String sequence) {
         CallbackRequest request = CallbackRequest.builder()
             .type("gameState")
             .sessionId(sessionId)
             .data(gameStateJson)
             .timestamp(System.currentTimeMillis())
+            .sequence(sequence)
+            .instanceId(instanceId)
             .build();
         
         sendCallback(request);
@@ -61,48 +96,77 @@ public class NotificationService {
     /**
      * 发送游戏事件变更通知
      */
-    public void notifyGameEventChange(String sessionId, String eventJson) {
+    public void notifyGameEventChange(String sessionId, String eventJson, String sequence) {
         CallbackRequest request = CallbackRequest.builder()
             .type("gameEvent")
             .sessionId(sessionId)
             .data(eventJson)
             .timestamp(System.currentTimeMillis())
+            .sequence(sequence)
+            .instanceId(instanceId)
+            .build();
+        
+        sendCallback(request);
+    }
+
+    /**
+     * 发送在线状态变更通知（加入/离开差量）
+     */
+    public void notifyPresenceChange(String sessionId, String presenceDiffJson) {
+        CallbackRequest request = CallbackRequest.builder()
+            .type("presence")
+            .sessionId(sessionId)
+            .data(presenceDiffJson)
+            .timestamp(System.currentTimeMillis())
+            .instanceId(instanceId)
             .build();
         
         sendCallback(request);
     }
 
+    /**
+     * 发布计分板帧到ticker通道
+     * 帧字节直接作为请求体发送，Node.js原样转发给订阅者
+     */
+    public void publishScoreboard(ScoreboardFrame frame) {
+        dispatch(frame.getSessionId(), () -> buildTickerRequest(frame));
+    }
+
     /**
      * 发送HTTP回调
      */
     private void sendCallback(CallbackRequest callbackRequest) {
+        dispatch(callbackRequest.getSessionId(), () -> buildRequest(callbackRequest));
+    }
+
+    /**
+     * 发送请求
+     * 虚拟线程模式下按会话串行同步发送，否则使用OkHttp异步发送。
+     * 两种模式的延迟都从提交时刻开始计算，包含排队和等待并发许可的时间。
+     * 记录处理本身仍留在Tunnel线程上：process()返回后即推进checkpoint，移出会导致崩溃时丢记录。
+     */
+    private void dispatch(String sessionId, RequestFactory requestFactory) {
+        long startTime = System.currentTimeMillis();
+
+        if (virtualMode) {
+            dispatcher.submit(sessionId, () -> execute(sessionId, requestFactory, startTime));
+            return;
+        }
+
         try {
-            String jsonBody = objectMapper.writeValueAsString(callbackRequest);
-            RequestBody body = RequestBody.create(jsonBody, JSON_MEDIA_TYPE);
-            
-            Request request = new Request.Builder()
-                .url(callbackUrl + "/api/tunnel/callback")
-                .post(body)
-                .build();
+            Request request = requestFactory.create();
             
             // 异步发送，避免阻塞Tunnel处理
             httpClient.newCall(request).enqueue(new Callback() {
                 @Override
                 public void onFailure(Call call, IOException e) {
-                    log.error("❌ Failed to send callback for session {}: {}", 
-                        callbackRequest.getSessionId(), e.getMessage());
+                    handleFailure(sessionId, e, startTime);
                 }
 
                 @Override
                 public void onResponse(Call call, Response response) throws IOException {
                     try (ResponseBody responseBody = response.body()) {
-                        if (response.isSuccessful()) {
-                            log.debug("✅ Callback sent successfully for session {}", 
-                                callbackRequest.getSessionId());
-                        } else {
-                            log.warn("⚠️ Callback failed with status {} for session {}", 
-                                response.code(), callbackRequest.getSessionId());
-                        }
+                        handleResponse(sessionId, response, startTime);
                     }
                 }
             });
@@ -111,5 +175,108 @@ public class NotificationService {
             log.error("❌ Error preparing callback: {}", e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * 同步发送请求（在会话调度线程上执行）
+     */
+    private void execute(String sessionId, RequestFactory requestFactory, long startTime) {
+        try {
+            Request request = requestFactory.create();
+
+            try (Response response = httpClient.newCall(request).execute()) {
+                handleResponse(sessionId, response, startTime);
+            }
+        } catch (IOException e) {
+            handleFailure(sessionId, e, startTime);
+        } catch (Exception e) {
+            log.error("❌ Error preparing callback: {}", e.getMessage(), e);
+        }
+    }
+
+    private Request buildRequest(CallbackRequest callbackRequest) throws IOException {
+        String jsonBody = objectMapper.writeValueAsString(callbackRequest);
+        RequestBody body = RequestBody.create(jsonBody, JSON_MEDIA_TYPE);
+        
+        return new Request.Builder()
+            .url(callbackUrl + "/api/tunnel/callback")
+            .post(body)
+            .build();
+    }
+
+    private Request buildTickerRequest(ScoreboardFrame frame) {
+        RequestBody body = RequestBody.create(frame.sharedBytes(), FRAME_MEDIA_TYPE);
+
+        Request.Builder builder = new Request.Builder()
+            .url(callbackUrl + "/api/tunnel/ticker")
+            .header("X-Session-Id", frame.getSessionId())
+            .header("X-Instance-Id", instanceId)
+            .post(body);
+        if (frame.getSequence() != null) {
+            builder.header("X-Sequence", frame.getSequence());
+        }
+        return builder.build();
+    }
+
+    private void handleResponse(String sessionId, Response response, long startTime) {
+        long latencyMs = System.currentTimeMillis() - startTime;
+        totalLatencyMs.addAndGet(latencyMs);
+
+        if (response.isSuccessful()) {
+            sentCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                long suppressed = logSampler.tryAcquire("callback-sent");
+                if (suppressed >= 0) {
+                    log.debug("✅ Callback sent sessionId={} latencyMs={} suppressed={}", 
+                        sessionId, latencyMs, suppressed);
+                }
+            }
+        } else {
+            failedCount.incrementAndGet();
+            long suppressed = logSampler.tryAcquire("callback-status");
+            if (suppressed >= 0) {
+                log.warn("⚠️ Callback rejected sessionId={} status={} latencyMs={} suppressed={}", 
+                    sessionId, response.code(), latencyMs, suppressed);
+            }
+        }
+    }
+
+    private void handleFailure(String sessionId, IOException e, long startTime) {
+        // 失败的请求同样计入延迟，avgLatencyMs按 sent + failed 计算
+        long latencyMs = System.currentTimeMillis() - startTime;
+        totalLatencyMs.addAndGet(latencyMs);
+        failedCount.incrementAndGet();
+        long suppressed = logSampler.tryAcquire("callback-failed");
+        if (suppressed >= 0) {
+            log.error("❌ Callback failed sessionId={} latencyMs={} error={} suppressed={}", 
+                sessionId, latencyMs, e.getMessage(), suppressed);
+        }
+    }
+
+    /**
+     * 延迟构建请求，虚拟线程模式下序列化在会话调度线程上完成
+     */
+    private interface RequestFactory {
+        Request create() throws IOException;
+    }
+
+    /**
+     * 获取回调统计信息
+     */
+    public Map<String, Object> getStats() {
+        long sent = sentCount.get();
+        long failed = failedCount.get();
+        long completed = sent + failed;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executionMode", virtualMode ? ExecutionConfig.MODE_VIRTUAL : ExecutionConfig.MODE_ASYNC);
+        stats.put("virtualThreads", virtualMode && dispatcher.isVirtualThreads());
+        stats.put("sent", sent);
+        stats.put("failed", failed);
+        stats.put("avgLatencyMs", completed == 0 ? 0 : totalLatencyMs.get() / completed);
+        stats.put("pendingSessions", dispatcher.getActiveSessionCount());
+        stats.put("httpQueued", httpClient.dispatcher().queuedCallsCount());
+        stats.put("httpRunning", httpClient.dispatcher().runningCallsCount());
+        stats.put("threads", Thread.activeCount());
+        return stats;
+    }
+}
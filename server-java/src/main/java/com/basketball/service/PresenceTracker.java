@@ -0,0 +1,410 @@
+package com.basketball.service;
+
+import com.alicloud.openservices.tablestore.SyncClient;
+import com.alicloud.openservices.tablestore.model.BatchWriteRowRequest;
+import com.alicloud.openservices.tablestore.model.BatchWriteRowResponse;
+import com.alicloud.openservices.tablestore.model.ColumnValue;
+import com.alicloud.openservices.tablestore.model.Condition;
+import com.alicloud.openservices.tablestore.model.PrimaryKey;
+import com.alicloud.openservices.tablestore.model.PrimaryKeyBuilder;
+import com.alicloud.openservices.tablestore.model.PrimaryKeyValue;
+import com.alicloud.openservices.tablestore.model.RowExistenceExpectation;
+import com.alicloud.openservices.tablestore.model.RowUpdateChange;
+import com.basketball.config.PresenceConfig;
+import com.basketball.util.HashedTimingWheel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在线状态跟踪服务
+ * 接收轻量心跳，使用哈希时间轮过期空闲用户，只推送加入/离开的差量，
+ * 并按固定间隔把有在线用户或成员有变化的会话的activeUsers（用户→最后心跳时间）写回TableStore。
+ * 状态只在本实例内存中，多实例部署时由 presence.enabled 保证只有一个实例跟踪在线状态。
+ */
+@Service
+public class PresenceTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(PresenceTracker.class);
+
+    /**
+     * BatchWriteRow单次最多写入的行数
+     */
+    private static final int MAX_BATCH_ROWS = 200;
+
+    private final SyncClient syncClient;
+    private final NotificationService notificationService;
+    private final PresenceConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final long timeoutTicks;
+    private final long persistIntervalTicks;
+    private final HashedTimingWheel<PresenceKey> wheel;
+
+    // 以下状态均由this同步保护
+    private final Map<String, Map<String, Long>> sessions = new HashMap<>();
+    private final Map<String, Set<String>> pendingJoins = new HashMap<>();
+    private final Map<String, Set<String>> pendingLeaves = new HashMap<>();
+    private final Set<String> dirtySessions = new HashSet<>();
+    private long tickCount;
+
+    private ScheduledExecutorService scheduler;
+
+    // 持久化在独立线程上执行，时间轮线程只取快照；上一轮未完成时不开始新一轮
+    private ExecutorService persistExecutor;
+    private final AtomicBoolean persistInFlight = new AtomicBoolean();
+
+    @Autowired
+    public PresenceTracker(SyncClient syncClient, NotificationService notificationService,
+                           PresenceConfig config) {
+        this.syncClient = syncClient;
+        this.notificationService = notificationService;
+        this.config = config;
+
+        long tickMs = Math.max(1, config.getTickMs());
+        this.timeoutTicks = Math.max(1, TimeUnit.SECONDS.toMillis(config.getTimeoutSec()) / tickMs);
+        this.persistIntervalTicks = Math.max(1, TimeUnit.SECONDS.toMillis(config.getPersistIntervalSec()) / tickMs);
+
+        // 槽位数覆盖一个超时周期，续期后的用户不需要跨圈
+        this.wheel = new HashedTimingWheel<>((int) Math.min(timeoutTicks + 1, 4096));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("⏸️ PresenceTracker disabled on this instance, heartbeats are rejected");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "presence-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        persistExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "presence-persist");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, config.getTickMs(), config.getTickMs(),
+            TimeUnit.MILLISECONDS);
+
+        log.info("✅ PresenceTracker started, timeout: {}s, tick: {}ms, persist interval: {}s",
+            config.getTimeoutSec(), config.getTickMs(), config.getPersistIntervalSec());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (persistExecutor != null) {
+            persistExecutor.shutdown();
+            try {
+                persistExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 关闭前写回尚未持久化的会话
+        persist(drainPersistSnapshot());
+        log.info("🛑 PresenceTracker stopped");
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 记录用户心跳
+     * @return true表示用户新加入会话
+     */
+    public boolean heartbeat(String sessionId, String userId) {
+        ensureEnabled();
+        synchronized (this) {
+            boolean joined = wheel.schedule(new PresenceKey(sessionId, userId), timeoutTicks);
+            sessions.computeIfAbsent(sessionId, key -> new HashMap<>())
+                .put(userId, System.currentTimeMillis());
+
+            if (joined) {
+                recordChange(sessionId, userId, pendingJoins, pendingLeaves);
+            }
+            return joined;
+        }
+    }
+
+    /**
+     * 用户主动离开会话
+     * @return true表示用户之前在线
+     */
+    public boolean leave(String sessionId, String userId) {
+        ensureEnabled();
+        synchronized (this) {
+            if (!wheel.cancel(new PresenceKey(sessionId, userId))) {
+                return false;
+            }
+            removeUser(sessionId, userId);
+            return true;
+        }
+    }
+
+    /**
+     * 获取会话当前在线用户及其最后心跳时间
+     */
+    public synchronized Map<String, Long> getActiveUsers(String sessionId) {
+        Map<String, Long> users = sessions.get(sessionId);
+        return users == null ? Collections.<String, Long>emptyMap() : new LinkedHashMap<>(users);
+    }
+
+    public synchronized int getTrackedUserCount() {
+        return wheel.size();
+    }
+
+    private void ensureEnabled() {
+        if (!config.isEnabled()) {
+            throw new IllegalStateException("Presence tracking is disabled on this instance");
+        }
+    }
+
+    /**
+     * 时间轮前进一格：过期空闲用户，推送差量，按间隔取快照交给持久化线程
+     */
+    private void tick() {
+        try {
+            Map<String, Set<String>> joins;
+            Map<String, Set<String>> leaves;
+            Map<String, Map<String, Long>> toPersist = Collections.emptyMap();
+            boolean persistRound = false;
+            Map<String, Integer> activeCounts = new HashMap<>();
+
+            synchronized (this) {
+                for (PresenceKey expired : wheel.advance()) {
+                    removeUser(expired.sessionId, expired.userId);
+                }
+
+                joins = new HashMap<>(pendingJoins);
+                leaves = new HashMap<>(pendingLeaves);
+                pendingJoins.clear();
+                pendingLeaves.clear();
+
+                for (String sessionId : joins.keySet()) {
+                    activeCounts.put(sessionId, sessions.getOrDefault(sessionId, Collections.emptyMap()).size());
+                }
+                for (String sessionId : leaves.keySet()) {
+                    activeCounts.put(sessionId, sessions.getOrDefault(sessionId, Collections.emptyMap()).size());
+                }
+
+                // 上一轮写回未完成时跳过，变化保留在dirtySessions中由下一轮写回
+                if (++tickCount % persistIntervalTicks == 0 && persistInFlight.compareAndSet(false, true)) {
+                    persistRound = true;
+                    toPersist = drainPersistSnapshot();
+                }
+            }
+
+            for (Map.Entry<String, Integer> entry : activeCounts.entrySet()) {
+                String sessionId = entry.getKey();
+                publishDiff(sessionId,
+                    joins.getOrDefault(sessionId, Collections.emptySet()),
+                    leaves.getOrDefault(sessionId, Collections.emptySet()),
+                    entry.getValue());
+            }
+
+            if (persistRound) {
+                if (toPersist.isEmpty()) {
+                    persistInFlight.set(false);
+                } else {
+                    schedulePersist(toPersist);
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ Error in presence tick: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 移除用户并记录离开差量（调用方持有锁）
+     */
+    private void removeUser(String sessionId, String userId) {
+        Map<String, Long> users = sessions.get(sessionId);
+        if (users != null) {
+            users.remove(userId);
+            if (users.isEmpty()) {
+                sessions.remove(sessionId);
+            }
+        }
+        recordChange(sessionId, userId, pendingLeaves, pendingJoins);
+    }
+
+    /**
+     * 记录成员变化；同一tick内加入又离开（或反之）的用户相互抵消（调用方持有锁）
+     */
+    private void recordChange(String sessionId, String userId,
+                              Map<String, Set<String>> changes, Map<String, Set<String>> opposite) {
+        Set<String> oppositeUsers = opposite.get(sessionId);
+        if (oppositeUsers != null && oppositeUsers.remove(userId)) {
+            if (oppositeUsers.isEmpty()) {
+                opposite.remove(sessionId);
+            }
+        } else {
+            changes.computeIfAbsent(sessionId, key -> new LinkedHashSet<>()).add(userId);
+        }
+        dirtySessions.add(sessionId);
+    }
+
+    /**
+     * 取出需要写回的会话：成员有变化的会话，以及仍有在线用户的会话
+     * 后者用于刷新最后心跳时间，客户端据此按与超时一致的阈值过滤在线用户
+     */
+    private synchronized Map<String, Map<String, Long>> drainPersistSnapshot() {
+        Map<String, Map<String, Long>> snapshot = new HashMap<>();
+        for (String sessionId : dirtySessions) {
+            snapshot.put(sessionId, Collections.<String, Long>emptyMap());
+        }
+        snapshot.putAll(sessions);
+        snapshot.replaceAll((sessionId, users) -> new HashMap<>(users));
+        dirtySessions.clear();
+        return snapshot;
+    }
+
+    private void publishDiff(String sessionId, Set<String> joined, Set<String> left, int activeCount) {
+        if (joined.isEmpty() && left.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Object> diff = new LinkedHashMap<>();
+            diff.put("joined", new ArrayList<>(joined));
+            diff.put("left", new ArrayList<>(left));
+            diff.put("activeCount", activeCount);
+
+            log.debug("👥 Presence change sessionId={} joined={} left={} activeCount={}", 
+                sessionId, joined.size(), left.size(), activeCount);
+            notificationService.notifyPresenceChange(sessionId, objectMapper.writeValueAsString(diff));
+        } catch (Exception e) {
+            log.error("❌ Error publishing presence for session {}: {}", sessionId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 在持久化线程上写回快照，完成后允许下一轮
+     */
+    private void schedulePersist(Map<String, Map<String, Long>> snapshot) {
+        try {
+            persistExecutor.execute(() -> {
+                try {
+                    persist(snapshot);
+                } finally {
+                    persistInFlight.set(false);
+                }
+            });
+        } catch (Exception e) {
+            persistInFlight.set(false);
+            log.warn("⚠️ Failed to schedule presence persist error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把会话的activeUsers批量写回TableStore，每批最多MAX_BATCH_ROWS行
+     */
+    private void persist(Map<String, Map<String, Long>> snapshot) {
+        List<String> batchSessions = new ArrayList<>(MAX_BATCH_ROWS);
+        BatchWriteRowRequest request = new BatchWriteRowRequest();
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<String, Map<String, Long>> entry : snapshot.entrySet()) {
+            String sessionId = entry.getKey();
+            try {
+                PrimaryKey primaryKey = PrimaryKeyBuilder.createPrimaryKeyBuilder()
+                    .addPrimaryKeyColumn("sessionId", PrimaryKeyValue.fromString(sessionId))
+                    .build();
+
+                RowUpdateChange change = new RowUpdateChange(config.getGameSessionsTable(), primaryKey);
+                change.put("activeUsers", ColumnValue.fromString(
+                    objectMapper.writeValueAsString(entry.getValue())));
+                change.put("lastActiveAt", ColumnValue.fromLong(now));
+                change.setCondition(new Condition(RowExistenceExpectation.EXPECT_EXIST));
+
+                request.addRowChange(change);
+                batchSessions.add(sessionId);
+            } catch (Exception e) {
+                log.warn("⚠️ Failed to encode presence sessionId={} error={}", sessionId, e.getMessage());
+            }
+
+            if (batchSessions.size() >= MAX_BATCH_ROWS) {
+                writeBatch(request, batchSessions);
+                request = new BatchWriteRowRequest();
+                batchSessions = new ArrayList<>(MAX_BATCH_ROWS);
+            }
+        }
+
+        if (!batchSessions.isEmpty()) {
+            writeBatch(request, batchSessions);
+        }
+    }
+
+    private void writeBatch(BatchWriteRowRequest request, List<String> batchSessions) {
+        try {
+            BatchWriteRowResponse response = syncClient.batchWriteRow(request);
+            List<BatchWriteRowResponse.RowResult> failedRows = response.getFailedRows();
+            for (BatchWriteRowResponse.RowResult failed : failedRows) {
+                // 会话已被删除时条件检查失败，属于正常情况
+                log.debug("⚠️ Failed to persist presence sessionId={} error={}",
+                    batchSessions.get(failed.getIndex()), failed.getError().getMessage());
+            }
+            log.debug("💾 Persisted presence sessions={} failed={}", batchSessions.size(), failedRows.size());
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to persist presence sessions={} error={}", batchSessions.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 时间轮中的键：会话 + 用户
+     */
+    private static final class PresenceKey {
+        private final String sessionId;
+        private final String userId;
+
+        private PresenceKey(String sessionId, String userId) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PresenceKey)) {
+                return false;
+            }
+            PresenceKey other = (PresenceKey) o;
+            return sessionId.equals(other.sessionId) && userId.equals(other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sessionId, userId);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.basketball.service;
+
+import com.basketball.model.ScoreboardFrame;
+import com.basketball.util.JsonFieldScanner;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 计分板投影器
+ * 从gameState JSON中按下标扫描出比分、节次、时间、犯规和暂停，
+ * 直接拼接原始JSON片段编码成计分板帧；内容未变化时不产生新帧。
+ * 每个GameSessionsProcessor持有独立实例，与所属Channel同生命周期。
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+public class ScoreboardProjector {
+
+    /**
+     * 最多缓存的会话数
+     */
+    private static final int MAX_TRACKED_SESSIONS = 10000;
+
+    private static final String[] TEAM_FIELDS = {"name", "score", "fouls", "timeouts"};
+
+    private static final String[] TOP_LEVEL_FIELDS = {"homeTeam", "awayTeam", "quarter", "time", "isRunning"};
+    private static final int HOME_TEAM = 0;
+    private static final int AWAY_TEAM = 1;
+    private static final int QUARTER = 2;
+    private static final int TIME = 3;
+    private static final int IS_RUNNING = 4;
+
+    /**
+     * 每个会话最后发布的帧；Channel迁移后在新实例上按需重建
+     */
+    private final Map<String, ScoreboardFrame> lastFrames =
+        new LinkedHashMap<String, ScoreboardFrame>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScoreboardFrame> eldest) {
+                return size() > MAX_TRACKED_SESSIONS;
+            }
+        };
+
+    /**
+     * 投影计分板
+     * @return 新的计分板帧；gameState无法解析或计分板未变化时返回null
+     */
+    public ScoreboardFrame project(String sessionId, String gameStateJson, String sequence) {
+        // 一次遍历取出所有顶层字段，不重复扫描很长的events数组
+        int[][] fields = JsonFieldScanner.findFields(gameStateJson, 0, gameStateJson.length(), TOP_LEVEL_FIELDS);
+        if (fields == null || fields[HOME_TEAM] == null || fields[AWAY_TEAM] == null) {
+            return null;
+        }
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"type\":\"scoreboard_update\",\"payload\":{\"sessionId\":");
+        appendString(json, sessionId);
+        json.append(",\"scoreboard\":{\"quarter\":");
+        appendValue(json, gameStateJson, fields[QUARTER]);
+        json.append(",\"time\":");
+        appendValue(json, gameStateJson, fields[TIME]);
+        json.append(",\"isRunning\":");
+        appendValue(json, gameStateJson, fields[IS_RUNNING]);
+        json.append(",\"home\":");
+        appendTeam(json, gameStateJson, fields[HOME_TEAM]);
+        json.append(",\"away\":");
+        appendTeam(json, gameStateJson, fields[AWAY_TEAM]);
+        json.append("}}}");
+
+        ScoreboardFrame frame = new ScoreboardFrame(sessionId, sequence,
+            json.toString().getBytes(StandardCharsets.UTF_8));
+
+        synchronized (lastFrames) {
+            if (frame.sameContentAs(lastFrames.get(sessionId))) {
+                return null;
+            }
+            lastFrames.put(sessionId, frame);
+        }
+        return frame;
+    }
+
+    /**
+     * 清空缓存的帧（Channel被释放时调用）
+     */
+    public void clear() {
+        synchronized (lastFrames) {
+            lastFrames.clear();
+        }
+    }
+
+    private void appendTeam(StringBuilder json, String gameStateJson, int[] team) {
+        int[][] fields = JsonFieldScanner.findFields(gameStateJson, team[0], team[1], TEAM_FIELDS);
+        json.append('{');
+        for (int i = 0; i < TEAM_FIELDS.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(TEAM_FIELDS[i]).append("\":");
+            appendValue(json, gameStateJson, fields == null ? null : fields[i]);
+        }
+        json.append('}');
+    }
+
+    /**
+     * 原样复制JSON值片段
+     */
+    private void appendValue(StringBuilder json, String source, int[] span) {
+        if (span == null) {
+            json.append("null");
+        } else {
+            json.append(source, span[0], span[1]);
+        }
+    }
+
+    private void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,152 @@
+package com.basketball.service;
+
+import com.basketball.config.ExecutionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话调度器
+ * 按会话串行执行任务：同一会话的任务保持提交顺序，不同会话之间并发执行，
+ * 全局并发数由信号量限制。在JDK 21+上每个会话的排空任务运行在虚拟线程上。
+ */
+@Component
+public class SessionDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionDispatcher.class);
+
+    /**
+     * 正在排空的会话队列；队列存在于Map中即表示已有排空任务在运行
+     */
+    private final Map<String, Queue<Runnable>> sessionQueues = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+
+    @Autowired
+    public SessionDispatcher(ExecutionConfig config) {
+        this.permits = new Semaphore(Math.max(1, config.getMaxConcurrency()));
+
+        ExecutorService virtualExecutor = config.isVirtualMode() ? createVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.virtualThreads = true;
+        } else {
+            // 非虚拟线程模式下仅作为兜底，线程数与并发上限一致
+            this.executor = Executors.newFixedThreadPool(Math.max(1, config.getMaxConcurrency()));
+            this.virtualThreads = false;
+        }
+
+        log.info("✅ SessionDispatcher initialized, virtualThreads: {}, maxConcurrency: {}",
+            virtualThreads, config.getMaxConcurrency());
+    }
+
+    /**
+     * 提交会话任务
+     * 同一sessionId的任务按提交顺序依次执行
+     */
+    public void submit(String sessionId, Runnable task) {
+        boolean[] schedule = new boolean[1];
+
+        sessionQueues.compute(sessionId, (key, queue) -> {
+            if (queue == null) {
+                queue = new ConcurrentLinkedQueue<>();
+                schedule[0] = true;
+            }
+            queue.add(task);
+            return queue;
+        });
+
+        if (schedule[0]) {
+            executor.execute(() -> drain(sessionId));
+        }
+    }
+
+    /**
+     * 当前有待处理任务的会话数
+     */
+    public int getActiveSessionCount() {
+        return sessionQueues.size();
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 依次执行会话队列中的任务，直到队列为空
+     */
+    private void drain(String sessionId) {
+        Queue<Runnable> queue = sessionQueues.get(sessionId);
+
+        while (queue != null) {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                runWithPermit(sessionId, task);
+            }
+
+            // 在compute中检查并移除，避免与submit竞争导致同一会话出现两个排空任务
+            queue = sessionQueues.compute(sessionId, (key, current) ->
+                current == null || current.isEmpty() ? null : current);
+        }
+    }
+
+    private void runWithPermit(String sessionId, Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Interrupted while waiting for dispatch permit, session {}", sessionId);
+            return;
+        }
+
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("❌ Error running task for session {}: {}", sessionId, e.getMessage(), e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，使项目仍可在JDK 11上编译运行
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("⚠️ Virtual threads require JDK 21+, running on {}; falling back to platform threads",
+                System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("🛑 SessionDispatcher shut down");
+    }
+}
@@ -2,18 +2,28 @@ package com.basketball.service;
 
 import com.alicloud.openservices.tablestore.TunnelClient;
 import com.alicloud.openservices.tablestore.model.tunnel.*;
-import com.alicloud.openservices.tablestore.tunnel.worker.IChannelProcessor;
 import com.alicloud.openservices.tablestore.tunnel.worker.ProcessRecordsInput;
 import com.alicloud.openservices.tablestore.tunnel.worker.TunnelWorker;
 import com.alicloud.openservices.tablestore.tunnel.worker.TunnelWorkerConfig;
 import com.basketball.config.TableStoreConfig;
+import com.basketball.config.TunnelWorkerProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tunnel服务
@@ -24,23 +34,35 @@ public class TunnelService {
 
     private static final Logger log = LoggerFactory.getLogger(TunnelService.class);
 
+    /**
+     * Worker线程池队列长度，与SDK默认值一致
+     */
+    private static final int WORKER_QUEUE_SIZE = 16;
+
     @Autowired
     private TunnelClient tunnelClient;
 
     @Autowired
     private TableStoreConfig config;
 
+    @Autowired
+    private TunnelWorkerProperties workerProperties;
+
     @Autowired
     private NotificationService notificationService;
 
     @Autowired
-    private GameSessionsProcessor gameSessionsProcessor;
+    private ObjectProvider<GameSessionsProcessor> gameSessionsProcessors;
 
     @Autowired
-    private GameEventsProcessor gameEventsProcessor;
+    private ObjectProvider<GameEventsProcessor> gameEventsProcessors;
 
     private TunnelWorker gameSessionsWorker;
     private TunnelWorker gameEventsWorker;
+    private TunnelWorkerConfig gameSessionsWorkerConfig;
+    private TunnelWorkerConfig gameEventsWorkerConfig;
+    private ChannelProcessorFactory gameSessionsProcessorFactory;
+    private ChannelProcessorFactory gameEventsProcessorFactory;
 
     /**
      * 启动Tunnel监听
@@ -48,7 +70,7 @@ public class TunnelService {
     @PostConstruct
     public void start() {
         try {
-            log.info("🚇 Starting Tunnel Service...");
+            log.info("🚇 Starting Tunnel Service, instance: {}", workerProperties.getInstanceId());
 
             // 启动GameSessions Tunnel
             startGameSessionsTunnel();
@@ -73,11 +95,13 @@ public class TunnelService {
 
             if (gameSessionsWorker != null) {
                 gameSessionsWorker.shutdown();
+                gameSessionsWorkerConfig.shutdown();
                 log.info("✅ GameSessions Tunnel worker stopped");
             }
 
             if (gameEventsWorker != null) {
                 gameEventsWorker.shutdown();
+                gameEventsWorkerConfig.shutdown();
                 log.info("✅ GameEvents Tunnel worker stopped");
             }
 
@@ -93,14 +117,15 @@ public class TunnelService {
     private void startGameSessionsTunnel() {
         String tunnelId = config.getGameSessionsTunnelId();
         
-        TunnelWorkerConfig workerConfig = new TunnelWorkerConfig(
-            gameSessionsProcessor
-        );
+        gameSessionsWorkerConfig = createWorkerConfig("gameSessions");
+        gameSessionsProcessorFactory = new ChannelProcessorFactory(
+            "GameSessions", gameSessionsProcessors, gameSessionsWorkerConfig.getCheckpointIntervalInMillis());
 
         gameSessionsWorker = new TunnelWorker(
             tunnelId,
             tunnelClient,
-            workerConfig
+            gameSessionsWorkerConfig,
+            gameSessionsProcessorFactory
         );
 
         try {
@@ -118,14 +143,15 @@ public class TunnelService {
     private void startGameEventsTunnel() {
         String tunnelId = config.getGameEventsTunnelId();
         
-        TunnelWorkerConfig workerConfig = new TunnelWorkerConfig(
-            gameEventsProcessor
-        );
+        gameEventsWorkerConfig = createWorkerConfig("gameEvents");
+        gameEventsProcessorFactory = new ChannelProcessorFactory(
+            "GameEvents", gameEventsProcessors, gameEventsWorkerConfig.getCheckpointIntervalInMillis());
 
         gameEventsWorker = new TunnelWorker(
             tunnelId,
             tunnelClient,
-            workerConfig
+            gameEventsWorkerConfig,
+            gameEventsProcessorFactory
         );
 
         try {
@@ -136,5 +162,124 @@ public class TunnelService {
             throw new RuntimeException("Failed to connect GameEvents Tunnel", e);
         }
     }
-}
 
+    /**
+     * 根据配置创建Worker配置
+     * 多个实例使用同一Tunnel时，由Tunnel服务端在各实例之间分配Channel
+     * 线程池通过构造函数传入，避免SDK先创建默认线程池再被替换而无法关闭；
+     * 处理器由ChannelProcessorFactory按Channel创建，这里不设置共享处理器
+     */
+    private TunnelWorkerConfig createWorkerConfig(String name) {
+        TunnelWorkerConfig workerConfig = new TunnelWorkerConfig(
+            createExecutor(name + "-read",
+                workerProperties.getReadThreads(), workerProperties.getReadMaxThreads()),
+            createExecutor(name + "-process",
+                workerProperties.getProcessThreads(), workerProperties.getProcessMaxThreads()),
+            null
+        );
+
+        workerConfig.setClientTag(workerProperties.getInstanceId());
+        workerConfig.setHeartbeatIntervalInSec(workerProperties.getHeartbeatIntervalSec());
+        workerConfig.setMaxChannelParallel(workerProperties.getMaxChannelParallel());
+
+        log.info("⚙️ {} worker config: heartbeat={}s, readThreads={}/{}, processThreads={}/{}, maxChannelParallel={}",
+            name,
+            workerProperties.getHeartbeatIntervalSec(),
+            workerProperties.getReadThreads(),
+            workerProperties.getReadMaxThreads(),
+            workerProperties.getProcessThreads(),
+            workerProperties.getProcessMaxThreads(),
+            workerProperties.getMaxChannelParallel());
+
+        return workerConfig;
+    }
+
+    /**
+     * 创建Worker线程池
+     * 与SDK默认线程池相同：核心线程常驻，队列（16）满后扩容到最大线程数，
+     * 达到最大线程数且队列已满时由调用线程执行以形成背压。
+     * 最大线程数不大于核心线程数时，并行度固定为核心线程数。
+     */
+    private ThreadPoolExecutor createExecutor(String namePrefix, int coreThreads, int maxThreads) {
+        int corePoolSize = Math.max(1, coreThreads);
+        int maxPoolSize = Math.max(corePoolSize, maxThreads);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(
+            corePoolSize,
+            maxPoolSize,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(WORKER_QUEUE_SIZE),
+            threadFactory,
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * 查询Channel分配情况
+     * 需要配置表名和Tunnel名称，未配置的Tunnel不返回Channel列表
+     */
+    public Map<String, Object> describeChannels() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("instanceId", workerProperties.getInstanceId());
+        result.put("gameSessions", describeChannels(workerProperties.getGameSessionsTable(),
+            workerProperties.getGameSessionsTunnelName(), gameSessionsProcessorFactory));
+        result.put("gameEvents", describeChannels(workerProperties.getGameEventsTable(),
+            workerProperties.getGameEventsTunnelName(), gameEventsProcessorFactory));
+        return result;
+    }
+
+    private Map<String, Object> describeChannels(String tableName, String tunnelName,
+                                                 ChannelProcessorFactory processorFactory) {
+        // clientId由Tunnel服务端在clientTag后附加后缀生成，只能从分配给本实例的Channel中得知
+        String ownClientId = processorFactory != null ? processorFactory.getClientId() : null;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tableName", tableName);
+        result.put("tunnelName", tunnelName);
+        result.put("clientId", ownClientId);
+
+        if (tunnelName == null || tunnelName.isEmpty()) {
+            result.put("error", "Tunnel name not configured");
+            return result;
+        }
+
+        try {
+            DescribeTunnelResponse response = tunnelClient.describeTunnel(
+                new DescribeTunnelRequest(tableName, tunnelName));
+
+            List<Map<String, Object>> channels = new ArrayList<>();
+            int owned = 0;
+
+            for (ChannelInfo channelInfo : response.getChannelInfos()) {
+                String clientId = channelInfo.getClientId();
+                boolean ownedByThisInstance = clientId != null && clientId.equals(ownClientId);
+                if (ownedByThisInstance) {
+                    owned++;
+                }
+
+                Map<String, Object> channel = new LinkedHashMap<>();
+                channel.put("channelId", channelInfo.getChannelId());
+                channel.put("status", String.valueOf(channelInfo.getChannelStatus()));
+                channel.put("clientId", clientId);
+                channel.put("ownedByThisInstance", ownedByThisInstance);
+                channels.add(channel);
+            }
+
+            result.put("totalChannels", channels.size());
+            result.put("ownedChannels", owned);
+            result.put("channels", channels);
+        } catch (Exception e) {
+            log.error("❌ Failed to describe tunnel {}: {}", tunnelName, e.getMessage());
+            result.put("error", e.getMessage());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.basketball.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 哈希时间轮
+ * 按tick划分槽位，调度、续期、取消和到期检查均为O(1)。
+ * 非线程安全，由调用方负责同步。
+ */
+public class HashedTimingWheel<K> {
+
+    private final List<Set<K>> slots;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    public HashedTimingWheel(int wheelSize) {
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * 调度或续期：key将在delayTicks个tick后到期
+     * @return true表示新加入的key
+     */
+    public boolean schedule(K key, long delayTicks) {
+        long deadline = currentTick + Math.max(1, delayTicks);
+        Long previous = deadlines.put(key, deadline);
+
+        if (previous != null) {
+            slotOf(previous).remove(key);
+        }
+        slotOf(deadline).add(key);
+
+        return previous == null;
+    }
+
+    /**
+     * 取消key的调度
+     */
+    public boolean cancel(K key) {
+        Long deadline = deadlines.remove(key);
+        if (deadline == null) {
+            return false;
+        }
+        slotOf(deadline).remove(key);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return deadlines.containsKey(key);
+    }
+
+    /**
+     * 前进一个tick，返回本tick到期的key
+     * 超过一圈的key留在槽位中等待后续轮次
+     */
+    public List<K> advance() {
+        currentTick++;
+        List<K> expired = new ArrayList<>();
+
+        Iterator<K> iterator = slotOf(currentTick).iterator();
+        while (iterator.hasNext()) {
+            K key = iterator.next();
+            if (deadlines.get(key) <= currentTick) {
+                iterator.remove();
+                deadlines.remove(key);
+                expired.add(key);
+            }
+        }
+
+        return expired;
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    private Set<K> slotOf(long tick) {
+        return slots.get((int) (tick % slots.size()));
+    }
+}
@@ -0,0 +1,192 @@
+package com.basketball.util;
+
+/**
+ * JSON字段扫描工具
+ * 按下标在JSON文本中定位字段值，不构建对象树；
+ * 跳过的子对象和数组只做括号计数，不分配内存。
+ */
+public class JsonFieldScanner {
+
+    private JsonFieldScanner() {
+    }
+
+    /**
+     * 按路径查找字段值，如 findPath(json, "homeTeam", "score")
+     * @return 值在json中的 [start, end)，未找到或格式错误时返回null
+     */
+    public static int[] findPath(String json, String... path) {
+        int start = 0;
+        int end = json.length();
+
+        for (String key : path) {
+            int[] span = findField(json, start, end, key);
+            if (span == null) {
+                return null;
+            }
+            start = span[0];
+            end = span[1];
+        }
+
+        return new int[] {start, end};
+    }
+
+    /**
+     * 在 [start, end) 范围内的JSON对象中查找直接子字段
+     * @return 值的 [start, end)，未找到或格式错误时返回null
+     */
+    public static int[] findField(String json, int start, int end, String key) {
+        int[][] spans = findFields(json, start, end, key);
+        return spans == null ? null : spans[0];
+    }
+
+    /**
+     * 在 [start, end) 范围内的JSON对象中一次遍历查找多个直接子字段
+     * 全部找到后立即返回，不再扫描之后的值（如很长的events数组）
+     * @return 与keys顺序对应的值 [start, end)，未找到的字段为null；
+     *         在找全之前遇到格式错误时返回null
+     */
+    public static int[][] findFields(String json, int start, int end, String... keys) {
+        int[][] spans = new int[keys.length][];
+        int remaining = keys.length;
+
+        int i = skipWhitespace(json, start, end);
+        if (i >= end || json.charAt(i) != '{') {
+            return null;
+        }
+        i = skipWhitespace(json, i + 1, end);
+        if (i < end && json.charAt(i) == '}') {
+            return spans;
+        }
+
+        while (true) {
+            if (i >= end || json.charAt(i) != '"') {
+                return null;
+            }
+
+            int keyStart = i + 1;
+            int keyEnd = skipString(json, i, end);
+            if (keyEnd < 0) {
+                return null;
+            }
+
+            int matched = -1;
+            for (int k = 0; k < keys.length; k++) {
+                if (spans[k] == null && keyEnd - 1 - keyStart == keys[k].length()
+                    && json.regionMatches(keyStart, keys[k], 0, keys[k].length())) {
+                    matched = k;
+                    break;
+                }
+            }
+
+            i = skipWhitespace(json, keyEnd, end);
+            if (i >= end || json.charAt(i) != ':') {
+                return null;
+            }
+
+            int valueStart = skipWhitespace(json, i + 1, end);
+            int valueEnd = skipValue(json, valueStart, end);
+            if (valueEnd < 0) {
+                return null;
+            }
+            if (matched >= 0) {
+                spans[matched] = new int[] {valueStart, valueEnd};
+                if (--remaining == 0) {
+                    return spans;
+                }
+            }
+
+            i = skipWhitespace(json, valueEnd, end);
+            if (i < end && json.charAt(i) == '}') {
+                return spans;
+            }
+            if (i >= end || json.charAt(i) != ',') {
+                return null;
+            }
+            i = skipWhitespace(json, i + 1, end);
+        }
+    }
+
+    /**
+     * 跳过一个JSON值
+     * @return 值结束后的下标，格式错误时返回-1
+     */
+    private static int skipValue(String json, int i, int end) {
+        if (i >= end) {
+            return -1;
+        }
+
+        char c = json.charAt(i);
+        if (c == '"') {
+            return skipString(json, i, end);
+        }
+        if (c == '{' || c == '[') {
+            return skipContainer(json, i, end);
+        }
+
+        // 数字、true、false、null
+        while (i < end) {
+            c = json.charAt(i);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 跳过对象或数组，只计数括号深度
+     */
+    private static int skipContainer(String json, int i, int end) {
+        int depth = 0;
+
+        while (i < end) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                i = skipString(json, i, end);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+
+        return -1;
+    }
+
+    /**
+     * 跳过以i处引号开始的字符串
+     * @return 结束引号之后的下标，格式错误时返回-1
+     */
+    private static int skipString(String json, int i, int end) {
+        i++;
+        while (i < end) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '"') {
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String json, int i, int end) {
+        while (i < end && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
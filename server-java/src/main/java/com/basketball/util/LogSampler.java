@@ -0,0 +1,53 @@
+package com.basketball.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志采样工具
+ * 按消息键限制每个时间窗口内输出的日志条数，超出部分只计数，
+ * 在下一条允许输出的日志中带出被抑制的条数。
+ */
+public class LogSampler {
+
+    private final int permitsPerWindow;
+    private final long windowMs;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LogSampler(int permitsPerWindow, long windowMs) {
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * 尝试获取一次输出许可
+     * @return 允许输出时返回自上次输出以来被抑制的条数（>=0），否则返回-1
+     */
+    public long tryAcquire(String key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.currentTimeMillis();
+
+        synchronized (window) {
+            if (now - window.start >= windowMs) {
+                window.start = now;
+                window.count = 0;
+            }
+
+            if (window.count < permitsPerWindow) {
+                window.count++;
+                long suppressed = window.suppressed;
+                window.suppressed = 0;
+                return suppressed;
+            }
+
+            window.suppressed++;
+            return -1;
+        }
+    }
+
+    private static final class Window {
+        private long start;
+        private int count;
+        private long suppressed;
+    }
+}
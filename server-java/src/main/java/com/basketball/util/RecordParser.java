@@ -6,6 +6,8 @@ import com.alicloud.openservices.tablestore.model.ColumnType;
 import com.alicloud.openservices.tablestore.model.PrimaryKey;
 import com.alicloud.openservices.tablestore.model.PrimaryKeyColumn;
 import com.alicloud.openservices.tablestore.model.RecordColumn;
+import com.alicloud.openservices.tablestore.model.RecordSequenceInfo;
+import com.alicloud.openservices.tablestore.model.StreamRecord;
 
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +40,7 @@ public class RecordParser {
 
     /**
      * 解析属性列
+     * UPDATE记录中被删除的列没有值，只返回写入的列
      */
     public static Map<String, Object> parseColumns(List<RecordColumn> columns) {
         Map<String, Object> result = new HashMap<>();
@@ -47,6 +50,10 @@ public class RecordParser {
         }
 
         for (RecordColumn column : columns) {
+            if (column.getColumnType() != RecordColumn.ColumnType.PUT) {
+                continue;
+            }
+
             String name = column.getColumn().getName();
             ColumnValue value = column.getColumn().getValue();
             
@@ -58,6 +65,22 @@ public class RecordParser {
         return result;
     }
 
+    /**
+     * 格式化记录序列号（epoch、timestamp、rowIndex）
+     * 固定宽度十六进制，可以直接按字符串比较先后
+     */
+    public static String formatSequence(StreamRecord record) {
+        RecordSequenceInfo sequenceInfo = record.getSequenceInfo();
+        if (sequenceInfo == null) {
+            return null;
+        }
+
+        return String.format("%08x%016x%08x",
+            sequenceInfo.getEpoch(),
+            sequenceInfo.getTimestamp(),
+            sequenceInfo.getRowIndex());
+    }
+
     /**
      * 解析列值
      */
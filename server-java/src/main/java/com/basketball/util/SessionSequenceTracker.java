@@ -0,0 +1,49 @@
+package com.basketball.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 会话序列号跟踪器
+ * 记录每个会话最后处理的记录序列号，用于丢弃重放的记录。
+ * Channel在实例间迁移后从checkpoint重新消费，状态在新实例上按需重建。
+ */
+public class SessionSequenceTracker {
+
+    private final Map<String, String> lastSequences;
+
+    public SessionSequenceTracker(int maxSessions) {
+        // 按访问顺序淘汰最久未活跃的会话
+        this.lastSequences = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * 尝试推进会话序列号
+     * @return true表示是新记录；false表示重放记录，应跳过
+     */
+    public synchronized boolean advance(String sessionId, String sequence) {
+        if (sequence == null) {
+            return true;
+        }
+
+        String last = lastSequences.get(sessionId);
+        if (last != null && sequence.compareTo(last) <= 0) {
+            return false;
+        }
+
+        lastSequences.put(sessionId, sequence);
+        return true;
+    }
+
+    /**
+     * 清空所有会话状态（Channel被释放时调用）
+     */
+    public synchronized void clear() {
+        lastSequences.clear();
+    }
+}
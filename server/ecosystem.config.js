@@ -24,7 +24,8 @@ module.exports = {
       TABLE_GAME_SESSIONS: process.env.TABLE_GAME_SESSIONS,
       TABLE_GAME_EVENTS: process.env.TABLE_GAME_EVENTS,
       PORT: process.env.PORT,
-      ALLOWED_ORIGINS: process.env.ALLOWED_ORIGINS
+      ALLOWED_ORIGINS: process.env.ALLOWED_ORIGINS,
+      JAVA_SERVICE_URL: process.env.JAVA_SERVICE_URL
     },
     error_file: './logs/error.log',
     out_file: './logs/out.log',
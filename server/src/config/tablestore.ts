@@ -46,7 +46,9 @@ export const tableConfig: TableConfig = {
 export const serverConfig = {
   port: parseInt(process.env.PORT || '3001', 10),
   nodeEnv: process.env.NODE_ENV || 'development',
-  allowedOrigins: process.env.ALLOWED_ORIGINS?.split(',') || ['http://localhost:5173']
+  allowedOrigins: process.env.ALLOWED_ORIGINS?.split(',') || ['http://localhost:5173'],
+  // Java Tunnel服务地址（在线状态心跳转发）
+  javaServiceUrl: process.env.JAVA_SERVICE_URL || 'http://localhost:8080'
 };
 
 // 验证配置
@@ -1,6 +1,7 @@
-import { Router, Request, Response } from 'express';
+import { Router, Request, Response, raw } from 'express';
 import { tablestoreClient } from '../services/tablestoreClient';
 import { websocketService } from '../services/websocketService';
+import { serverConfig } from '../config/tablestore';
 
 const router = Router();
 
@@ -97,8 +98,10 @@ router.put('/sessions/:sessionId', async (req: Request, res: Response) => {
     await tablestoreClient.updateGameState(sessionId, gameState);
 
     // 立即通过 WebSocket 广播更新
-    // 作为 Tunnel 的补充，确保实时性
-    websocketService.broadcastGameStateUpdate(sessionId, gameState);
+    // 作为 Tunnel 的补充，确保实时性；在线用户由presence_update推送，不广播客户端携带的副本
+    // eslint-disable-next-line @typescript-eslint/no-unused-vars
+    const { activeUsers, ...stateData } = gameState;
+    websocketService.broadcastGameStateUpdate(sessionId, stateData);
 
     res.json({
       success: true,
@@ -217,9 +220,16 @@ router.get('/sessions/:sessionId/events', async (req: Request, res: Response) =>
   }
 });
 
+/**
+ * 心跳转发给Java服务的超时时间，超时后回退为直接写TableStore
+ */
+const PRESENCE_FORWARD_TIMEOUT_MS = 2000;
+
 /**
  * 更新用户活动时间
  * POST /api/sessions/:sessionId/activity
+ * 心跳转发给Java服务的在线状态跟踪器，由其负责过期和持久化；
+ * Java服务不可用或超时时回退为直接写TableStore
  */
 router.post('/sessions/:sessionId/activity', async (req: Request, res: Response) => {
   try {
@@ -232,7 +242,21 @@ router.post('/sessions/:sessionId/activity', async (req: Request, res: Response)
       });
     }
 
-    await tablestoreClient.updateUserActivity(sessionId, userId);
+    try {
+      const response = await fetch(`${serverConfig.javaServiceUrl}/api/presence/heartbeat`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ sessionId, userId }),
+        signal: AbortSignal.timeout(PRESENCE_FORWARD_TIMEOUT_MS)
+      });
+
+      if (!response.ok) {
+        throw new Error(`Presence heartbeat failed with status ${response.status}`);
+      }
+    } catch (forwardError) {
+      console.warn('⚠️ Presence service unavailable, writing activity directly:', forwardError);
+      await tablestoreClient.updateUserActivity(sessionId, userId);
+    }
 
     res.json({
       success: true,
@@ -259,13 +283,69 @@ router.get('/generate-session-id', (req: Request, res: Response) => {
   });
 });
 
+/**
+ * 快照类回调（gameState、scoreboard）每个会话最后处理的记录序列号
+ * 多个Java实例共享Tunnel时，Channel迁移可能导致记录重放或乱序到达，旧快照直接丢弃
+ */
+const lastCallbackSequences: Map<string, string> = new Map();
+
+/**
+ * 已处理的事件类回调（gameEvent），键为 会话:序列号
+ * 每个事件都是独立的记录，较早的事件晚到也需要送达，只丢弃完全相同的重放
+ */
+const seenEventSequences: Map<string, true> = new Map();
+const MAX_TRACKED_SEQUENCES = 10000;
+const SNAPSHOT_CALLBACK_TYPES = new Set(['gameState', 'scoreboard']);
+
+/**
+ * 记录最近使用的键，超出上限时淘汰最早的键
+ */
+function rememberKey<V>(map: Map<string, V>, key: string, value: V): void {
+  map.delete(key);
+  map.set(key, value);
+  if (map.size > MAX_TRACKED_SEQUENCES) {
+    const oldestKey = map.keys().next().value;
+    if (oldestKey !== undefined) {
+      map.delete(oldestKey);
+    }
+  }
+}
+
+/**
+ * 检查回调是否需要处理
+ * 快照类回调只接受比已处理更新的序列号；事件类回调只丢弃已处理过的同一条记录
+ */
+function acceptCallbackSequence(type: string, sessionId: string, sequence?: string): boolean {
+  if (!sequence) {
+    return true;
+  }
+
+  if (!SNAPSHOT_CALLBACK_TYPES.has(type)) {
+    const eventKey = `${type}:${sessionId}:${sequence}`;
+    if (seenEventSequences.has(eventKey)) {
+      return false;
+    }
+    rememberKey(seenEventSequences, eventKey, true);
+    return true;
+  }
+
+  const key = `${type}:${sessionId}`;
+  const last = lastCallbackSequences.get(key);
+  if (last !== undefined && sequence <= last) {
+    return false;
+  }
+
+  rememberKey(lastCallbackSequences, key, sequence);
+  return true;
+}
+
 /**
  * Tunnel回调接口（由Java服务调用）
  * POST /api/tunnel/callback
  */
 router.post('/tunnel/callback', async (req: Request, res: Response) => {
   try {
-    const { type, sessionId, data, timestamp } = req.body;
+    const { type, sessionId, data, timestamp, sequence, instanceId } = req.body;
 
     if (!type || !sessionId || !data) {
       return res.status(400).json({
@@ -273,12 +353,26 @@ router.post('/tunnel/callback', async (req: Request, res: Response) => {
       });
     }
 
+    // 丢弃重放的回调，以及过期的快照
+    if (!acceptCallbackSequence(type, sessionId, sequence)) {
+      console.log(`⏭️ Skipped stale ${type} callback for session ${sessionId} from ${instanceId || 'unknown'}`);
+      return res.json({
+        success: true,
+        skipped: true,
+        timestamp
+      });
+    }
+
     // 根据类型分发通知
     if (type === 'gameState') {
       // 解析gameState JSON
       const gameState = typeof data === 'string' ? JSON.parse(data) : data;
       websocketService.broadcastGameStateUpdate(sessionId, gameState);
       console.log(`📤 Broadcasted gameState update for session: ${sessionId}`);
+    } else if (type === 'presence') {
+      // 在线状态差量：{ joined, left, activeCount }
+      const presence = typeof data === 'string' ? JSON.parse(data) : data;
+      websocketService.broadcastPresenceUpdate(sessionId, presence);
     } else if (type === 'gameEvent') {
       // 解析gameEvent JSON
       const event = typeof data === 'string' ? JSON.parse(data) : data;
@@ -304,5 +398,30 @@ router.post('/tunnel/callback', async (req: Request, res: Response) => {
   }
 });
 
-export default router;
+/**
+ * 计分板ticker接口（由Java服务调用）
+ * POST /api/tunnel/ticker
+ * 请求体是预先编码好的WSMessage字节，原样转发给ticker订阅者
+ */
+router.post('/tunnel/ticker', raw({ type: 'application/octet-stream', limit: '16kb' }), (req: Request, res: Response) => {
+  const sessionId = req.header('X-Session-Id');
+  const sequence = req.header('X-Sequence');
+  const frame = req.body;
+
+  if (!sessionId || !Buffer.isBuffer(frame) || frame.length === 0) {
+    return res.status(400).json({
+      error: 'Missing required fields: X-Session-Id header and frame body'
+    });
+  }
 
+  // 丢弃重放或过期的帧
+  if (!acceptCallbackSequence('scoreboard', sessionId, sequence)) {
+    return res.json({ success: true, skipped: true });
+  }
+
+  // 转发并缓存为该会话的最新帧，供之后订阅的客户端立即获取
+  websocketService.broadcastTickerFrame(sessionId, frame);
+  res.json({ success: true });
+});
+
+export default router;
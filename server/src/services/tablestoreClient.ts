@@ -54,8 +54,10 @@ export class TableStoreClient {
 
   /**
    * 更新游戏状态
+   * activeUsers由在线状态服务维护，这里不写回客户端携带的（可能已过期的）副本
    */
   async updateGameState(sessionId: string, gameState: GameState): Promise<void> {
+    // eslint-disable-next-line @typescript-eslint/no-unused-vars
     const { activeUsers, ...stateData } = gameState;
 
     const params = {
@@ -65,7 +67,6 @@ export class TableStoreClient {
       updateOfAttributeColumns: [
         { PUT: [
           { gameState: JSON.stringify(stateData) },
-          { activeUsers: JSON.stringify(activeUsers || {}) },
           { updatedAt: Date.now() },
           { lastActiveAt: Date.now() }
         ]}
@@ -11,6 +11,7 @@ interface ClientConnection {
   ws: WebSocket;
   subscribedSessions: Set<string>; // 订阅的游戏会话
   subscribedEvents: Set<string>; // 订阅的事件流
+  subscribedTickers: Set<string>; // 订阅的计分板ticker
   clientId: string;
   lastPing: number;
 }
@@ -24,6 +25,9 @@ export class WebSocketService {
   private clients: Map<WebSocket, ClientConnection> = new Map();
   private pingInterval?: NodeJS.Timeout;
   private readonly PING_INTERVAL = 30000; // 30秒心跳
+  // 每个会话最后转发的计分板帧，新订阅者立即收到当前计分板（Java端计分板不变时不再发帧）
+  private latestTickerFrames: Map<string, Buffer> = new Map();
+  private readonly MAX_CACHED_TICKER_FRAMES = 10000;
 
   /**
    * 初始化WebSocket服务器
@@ -53,6 +57,7 @@ export class WebSocketService {
       ws,
       subscribedSessions: new Set(),
       subscribedEvents: new Set(),
+      subscribedTickers: new Set(),
       clientId,
       lastPing: Date.now()
     };
@@ -119,6 +124,18 @@ export class WebSocketService {
           }
           break;
 
+        case WSMessageType.SUBSCRIBE_TICKER:
+          if (message.payload && typeof message.payload === 'object' && 'sessionId' in message.payload) {
+            this.handleSubscribeTicker(clientInfo, message.payload.sessionId as string);
+          }
+          break;
+
+        case WSMessageType.UNSUBSCRIBE_TICKER:
+          if (message.payload && typeof message.payload === 'object' && 'sessionId' in message.payload) {
+            this.handleUnsubscribeTicker(clientInfo, message.payload.sessionId as string);
+          }
+          break;
+
         case WSMessageType.PING:
           clientInfo.lastPing = Date.now();
           this.sendMessage(ws, { type: WSMessageType.PONG });
@@ -192,6 +209,40 @@ export class WebSocketService {
     console.log(`📡 Client ${clientInfo.clientId} unsubscribed from events: ${sessionId}`);
   }
 
+  /**
+   * 订阅计分板ticker
+   */
+  private handleSubscribeTicker(clientInfo: ClientConnection, sessionId: string): void {
+    if (!sessionId) {
+      this.sendMessage(clientInfo.ws, {
+        type: WSMessageType.ERROR,
+        error: 'Missing sessionId'
+      });
+      return;
+    }
+
+    clientInfo.subscribedTickers.add(sessionId);
+    console.log(`📡 Client ${clientInfo.clientId} subscribed to ticker: ${sessionId}`);
+
+    // 比赛暂停时计分板不会变化，立即补发最后一帧
+    const latestFrame = this.latestTickerFrames.get(sessionId);
+    if (latestFrame && clientInfo.ws.readyState === WebSocket.OPEN) {
+      clientInfo.ws.send(latestFrame, { binary: false });
+    }
+  }
+
+  /**
+   * 取消订阅计分板ticker
+   */
+  private handleUnsubscribeTicker(clientInfo: ClientConnection, sessionId: string): void {
+    if (!sessionId) {
+      return;
+    }
+
+    clientInfo.subscribedTickers.delete(sessionId);
+    console.log(`📡 Client ${clientInfo.clientId} unsubscribed from ticker: ${sessionId}`);
+  }
+
   /**
    * 处理客户端断开连接
    */
@@ -264,6 +315,57 @@ export class WebSocketService {
     }
   }
 
+  /**
+   * 广播在线状态变更（加入/离开差量）
+   */
+  public broadcastPresenceUpdate(sessionId: string, presence: unknown): void {
+    const message: WSMessage = {
+      type: WSMessageType.PRESENCE_UPDATE,
+      payload: { sessionId, presence }
+    };
+
+    let sentCount = 0;
+    this.clients.forEach((clientInfo) => {
+      if (clientInfo.subscribedSessions.has(sessionId)) {
+        this.sendMessage(clientInfo.ws, message);
+        sentCount++;
+      }
+    });
+
+    if (sentCount > 0) {
+      console.log(`📤 Broadcasted presence update to ${sentCount} clients for session: ${sessionId}`);
+    }
+  }
+
+  /**
+   * 转发计分板帧
+   * 帧由Java服务预先编码为完整的WSMessage JSON，这里原样以文本帧发送，不再解析或序列化
+   * 调用方只传入已通过序列号检查的帧，这里同时缓存为该会话的最新帧
+   */
+  public broadcastTickerFrame(sessionId: string, frame: Buffer): void {
+    // 重新插入以保持最近使用的键在末尾，超出上限时淘汰最早的键
+    this.latestTickerFrames.delete(sessionId);
+    this.latestTickerFrames.set(sessionId, frame);
+    if (this.latestTickerFrames.size > this.MAX_CACHED_TICKER_FRAMES) {
+      const oldestKey = this.latestTickerFrames.keys().next().value;
+      if (oldestKey !== undefined) {
+        this.latestTickerFrames.delete(oldestKey);
+      }
+    }
+
+    let sentCount = 0;
+    this.clients.forEach((clientInfo) => {
+      if (clientInfo.subscribedTickers.has(sessionId) && clientInfo.ws.readyState === WebSocket.OPEN) {
+        clientInfo.ws.send(frame, { binary: false });
+        sentCount++;
+      }
+    });
+
+    if (sentCount > 0) {
+      console.log(`📤 Forwarded scoreboard frame to ${sentCount} clients for session: ${sessionId}`);
+    }
+  }
+
   /**
    * 发送消息给客户端
    */
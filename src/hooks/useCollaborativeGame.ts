@@ -2,6 +2,11 @@ import { useState, useEffect, useCallback, useRef } from 'react';
 import { GameState, GameEvent, User, ServiceType } from '../types';
 import { collaborationServiceManager } from '../services/collaborationServiceManager';
 
+// 用户超过该时间未活动即视为离开，与Java在线状态服务的 presence.timeout-sec 一致
+const PRESENCE_TIMEOUT_MS = 60000;
+// 心跳间隔，需明显小于超时时间
+const PRESENCE_HEARTBEAT_INTERVAL_MS = 20000;
+
 interface UseCollaborativeGameProps {
   sessionId?: string;
   user: User;
@@ -44,6 +49,12 @@ export const useCollaborativeGame = ({
   // 用于存储取消订阅函数
   const unsubscribeRefs = useRef<Array<() => void>>([]);
 
+  // 当前在线用户ID，按加入顺序排列（第一个为主机）
+  const presentUserIdsRef = useRef<string[]>([]);
+
+  // 最后一次发送心跳的时间
+  const lastHeartbeatAtRef = useRef(0);
+
   // 获取当前服务
   const getCurrentService = useCallback(() => {
     collaborationServiceManager.switchService(serviceType);
@@ -97,6 +108,7 @@ export const useCollaborativeGame = ({
       
       // 更新用户活动状态
       await service.updateUserActivity(targetSessionId, user.id);
+      lastHeartbeatAtRef.current = Date.now();
       
       return true;
     } catch (err) {
@@ -185,6 +197,12 @@ export const useCollaborativeGame = ({
 
     let mounted = true;
 
+    const toConnectedUsers = (userIds: string[]): User[] => userIds.map((userId, index) => ({
+      id: userId,
+      name: userId === user.id ? user.name : `用户 ${userId.slice(-4)}`, // 简化用户名显示
+      isHost: index === 0 // 第一个用户为主机
+    }));
+
     const startListening = async () => {
       try {
         const service = getCurrentService();
@@ -197,29 +215,40 @@ export const useCollaborativeGame = ({
             setGameState(state);
             setIsConnected(true);
             
-            // 更新连接用户列表
+            // 更新连接用户列表；实时变化由presence_update推送时，这里只在获取到activeUsers时重新同步
             if (state.activeUsers) {
               const now = new Date();
-              const activeUsersList: User[] = Object.entries(state.activeUsers)
+              presentUserIdsRef.current = Object.entries(state.activeUsers)
                 .filter(([, lastSeen]) => {
                   const lastSeenDate = lastSeen instanceof Date ? lastSeen : new Date(lastSeen as string | number);
-                  return (now.getTime() - lastSeenDate.getTime()) < 30000; // 30秒内活跃
+                  return (now.getTime() - lastSeenDate.getTime()) < PRESENCE_TIMEOUT_MS;
                 })
-                .map(([userId]) => ({
-                  id: userId,
-                  name: userId === user.id ? user.name : `用户 ${userId.slice(-4)}`, // 简化用户名显示
-                  isHost: userId === Object.keys(state.activeUsers!)[0] // 第一个用户为主机
-                }));
+                .map(([userId]) => userId);
               
-              setConnectedUsers(activeUsersList);
+              setConnectedUsers(toConnectedUsers(presentUserIdsRef.current));
             }
           } else {
             setGameState(null);
             setIsConnected(false);
+            presentUserIdsRef.current = [];
             setConnectedUsers([]);
           }
         });
 
+        // 订阅在线用户加入/离开
+        const unsubscribePresence = service.subscribeToPresence
+          ? service.subscribeToPresence(sessionId, (presence) => {
+              if (!mounted) return;
+
+              const left = new Set(presence.left);
+              const remaining = presentUserIdsRef.current.filter(userId => !left.has(userId));
+              const joined = presence.joined.filter(userId => !remaining.includes(userId));
+              presentUserIdsRef.current = [...remaining, ...joined];
+
+              setConnectedUsers(toConnectedUsers(presentUserIdsRef.current));
+            })
+          : () => {};
+
         // 订阅游戏事件变化
         const unsubscribeEvents = service.subscribeToGameEvents(sessionId, (eventsList) => {
           if (!mounted) return;
@@ -227,7 +256,7 @@ export const useCollaborativeGame = ({
         });
 
         // 保存取消订阅函数
-        unsubscribeRefs.current = [unsubscribeGameState, unsubscribeEvents];
+        unsubscribeRefs.current = [unsubscribeGameState, unsubscribeEvents, unsubscribePresence];
 
       } catch (err) {
         if (mounted) {
@@ -245,6 +274,30 @@ export const useCollaborativeGame = ({
     };
   }, [sessionId, getCurrentService, user.id, user.name, cleanup]);
 
+  // 会话期间定期发送心跳，保持在线状态
+  // 只用于支持presence推送的服务（TableStore）：心跳只更新内存中的在线状态；
+  // 其他服务的updateUserActivity会读写整个会话文档，仍由游戏状态更新刷新活动时间
+  useEffect(() => {
+    if (!sessionId) return;
+
+    const service = getCurrentService();
+    if (!service.subscribeToPresence) return;
+
+    const sendHeartbeat = () => {
+      lastHeartbeatAtRef.current = Date.now();
+      service.updateUserActivity(sessionId, user.id).catch((err) => {
+        console.warn('⚠️ 发送在线心跳失败:', err);
+      });
+    };
+
+    // 刚加入会话时joinSession已发送过心跳
+    if (Date.now() - lastHeartbeatAtRef.current >= PRESENCE_HEARTBEAT_INTERVAL_MS) {
+      sendHeartbeat();
+    }
+    const timer = setInterval(sendHeartbeat, PRESENCE_HEARTBEAT_INTERVAL_MS);
+    return () => clearInterval(timer);
+  }, [sessionId, user.id, getCurrentService]);
+
   return {
     gameState,
     events,
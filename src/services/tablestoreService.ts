@@ -1,5 +1,5 @@
 import { CollaborativeService } from '../types';
-import type { GameState, GameEvent } from '../types';
+import type { GameState, GameEvent, PresenceUpdate } from '../types';
 import { tablestoreConfig } from '../config/tablestore';
 import { wsClient, WSMessageType } from './tablestoreWebSocketClient';
 
@@ -168,6 +168,25 @@ export class TableStoreService implements CollaborativeService {
     };
   }
 
+  /**
+   * 监听在线用户加入/离开
+   * 差量随会话订阅一起推送，需要先调用subscribeToGameState
+   */
+  subscribeToPresence(
+    sessionId: string,
+    callback: (presence: PresenceUpdate) => void
+  ): () => void {
+    return wsClient.on(
+      WSMessageType.PRESENCE_UPDATE,
+      (payload) => {
+        const data = payload as { sessionId: string; presence: PresenceUpdate };
+        if (data.sessionId === sessionId && data.presence) {
+          callback(data.presence);
+        }
+      }
+    );
+  }
+
   /**
    * 添加游戏事件
    */
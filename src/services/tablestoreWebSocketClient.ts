@@ -9,11 +9,15 @@ export enum WSMessageType {
   UNSUBSCRIBE_SESSION = 'unsubscribe_session',
   SUBSCRIBE_EVENTS = 'subscribe_events',
   UNSUBSCRIBE_EVENTS = 'unsubscribe_events',
+  SUBSCRIBE_TICKER = 'subscribe_ticker',
+  UNSUBSCRIBE_TICKER = 'unsubscribe_ticker',
   PING = 'ping',
   
   // 服务器 -> 客户端
   GAME_STATE_UPDATE = 'game_state_update',
   GAME_EVENTS_UPDATE = 'game_events_update',
+  PRESENCE_UPDATE = 'presence_update',
+  SCOREBOARD_UPDATE = 'scoreboard_update',
   ERROR = 'error',
   PONG = 'pong',
   CONNECTED = 'connected'
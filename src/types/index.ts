@@ -143,6 +143,13 @@ export interface User {
   isHost?: boolean; // 是否为主机
 }
 
+// 在线状态差量（用户加入/离开）
+export interface PresenceUpdate {
+  joined: string[];
+  left: string[];
+  activeCount: number;
+}
+
 // 协作服务类型
 export type ServiceType = 'firebase' | 'leancloud' | 'tablestore';
 
@@ -171,6 +178,9 @@ export interface CollaborativeService {
   
   // 更新用户活动时间
   updateUserActivity(sessionId: string, userId: string): Promise<void>;
+
+  // 监听在线用户加入/离开（可选，不支持的服务通过activeUsers时间戳判断在线）
+  subscribeToPresence?(sessionId: string, callback: (presence: PresenceUpdate) => void): () => void;
   
   // 生成会话ID
   generateSessionId(): string;